@@ -17,6 +17,7 @@ import javafx.scene.text.TextAlignment;
 import javafx.scene.text.Font;
 import javafx.stage.Stage;
 import javafx.stage.Screen;
+import engine.Player;
 
 /**
  *  This class is used to outsorce the player selection screen.
@@ -47,6 +47,8 @@ import javafx.stage.Stage;
 import javafx.stage.Screen;
 import javafx.stage.WindowEvent;
 import javafx.util.Duration; 
+import engine.*;
+import engine.Error;
 
 /**
  *  This class is the main class of the draughts game. 
@@ -74,17 +76,37 @@ public class UI extends Application
         try{
             FileInputStream file = new FileInputStream(pathImg+path);
             if(file==null)
-                img = Error.getImg();
+                img = getErrorImg();
             else
                 img = new Image(file);
         }
         catch (FileNotFoundException e){
             Error.send(false,"Can't find path \""+pathImg+path+"\"\n Error: "+e);
-            img = Error.getImg();
+            img = getErrorImg();
         }
         return img;
     }
     
+    /**
+     * Access the error symbol for images which cannot be found.
+     *
+     * @return The error symbol image
+     */
+    private static Image getErrorImg()
+    {
+        String pathError = pathImg+"error.png";
+        Image errorImage = null;
+        try
+        {
+            errorImage = new Image(new FileInputStream(pathError));
+        }
+        catch (FileNotFoundException e)
+        {
+            Error.send(false,"Can't find path \""+pathError+"\"\n Error: "+e);
+        }
+        return errorImage;
+    }
+    
     private static Player getPlayer(int player)
     {
         if(player==1)
@@ -124,6 +146,26 @@ public class UI extends Application
     // Whether colour indications on the board should be on/off
     private static boolean highlight;
 
+    /**
+     * A frame of the animation of a computer move in Java Flight Recorder, from the request of the
+     * frame until it is drawn. Only late frames are recorded, e.g. during a garbage collection.
+     */
+    @jdk.jfr.Name("ui.AnimationFrame")
+    @jdk.jfr.Label("Move Animation Frame")
+    @jdk.jfr.Category({"Draughts","UI"})
+    @jdk.jfr.Threshold("10 ms")
+    static class FrameEvent extends jdk.jfr.Event
+    {
+        @jdk.jfr.Label("Step")
+        int step;
+
+        @jdk.jfr.Label("Steps")
+        int steps;
+
+        @jdk.jfr.Label("Capture")
+        boolean capture;
+    }
+
     @Override
     public void start(Stage paramStage) throws Exception
     {
@@ -432,7 +474,11 @@ public class UI extends Application
                         {
                             Log.write(player.getName()
                                 +" explored "+player.getExploredNodes()
-                                +" node(s) in "+msElapsed/1000.0+"s");
+                                +" node(s) in "+msElapsed/1000.0+"s, "
+                                +player.getTable().getString()+", "
+                                +player.getEvaluationCache().getString());
+                            if(player.getSearchStats().getDepth()>0)
+                                Log.write(player.getName()+" search: "+player.getSearchStats().getString());
                             AImove(move);
                             }
                     });
@@ -493,11 +539,21 @@ public class UI extends Application
                     for(int i=0;i<steps;i++)
                     {
                         final int step = i;
+                        FrameEvent frame = new FrameEvent();
+                        frame.begin();
                         Platform.runLater(() -> {
                                 src.setX(src.getX()+VecX);
                                 src.setY(src.getY()+VecY);
                                 if(move.isCap()&&step>=steps/2)
                                     cap.setOpacity(cap.getOpacity()-ocpStep);
+                                frame.end();
+                                if(frame.shouldCommit())
+                                {
+                                    frame.step = step;
+                                    frame.steps = steps;
+                                    frame.capture = move.isCap();
+                                    frame.commit();
+                                }
                             });
                         sleep(sleepTime);
                     }
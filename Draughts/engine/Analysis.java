@@ -0,0 +1,203 @@
+package engine;
+
+import java.util.*;
+
+/**
+ * The class Analysis is there to evaluate a position.
+ *
+ * @author  Lukas Gunthermann
+ * @version 1.0
+ */
+public class Analysis
+{
+    public static <T> ArrayList<T> removeDuplicates(ArrayList<T> oldList) 
+    { 
+        ArrayList<T> newList = new ArrayList<T>();
+        
+        for(T element : oldList)
+            if (!newList.contains(element)) 
+                newList.add(element); 
+                
+        return newList; 
+    } 
+    
+    private static ArrayList<Position> getNeighbours(Position src)
+    {
+        ArrayList<Position> neighbours = new ArrayList<Position>();
+        Position pos;
+
+        pos = new Position(src.getX()+1,src.getY()+1);
+        if(pos.isValid())
+            neighbours.add(pos);
+            
+        pos = new Position(src.getX()+1,src.getY()-1);
+        if(pos.isValid())
+            neighbours.add(pos);
+            
+        pos = new Position(src.getX()-1,src.getY()+1);
+        if(pos.isValid())
+            neighbours.add(pos);
+            
+        pos = new Position(src.getX()-1,src.getY()-1);
+        if(pos.isValid())
+            neighbours.add(pos);
+        
+        return neighbours;
+    }
+
+    private static int getPlayerFactor(int player)
+    {
+        switch(player)
+        {
+            case 1: return +1;
+            case 2: return -1;
+            default: return 0;
+        }
+    }
+    
+    private static boolean isKing(int piece)
+    {
+        return(piece==3||piece==4);
+    }
+    
+    private static int getPlayer(int piece)
+    {
+        switch(piece)
+        {
+            case 0: return 0;
+            case 1: return 1;
+            case 2: return 2;
+            case 3: return 1;
+            case 4: return 2;
+            default: return 0;
+        }
+    }
+    
+    /**
+     * The squares around each square, ring by ring: rings[square][d] holds all squares
+     * which are d+1 diagonal steps away from the square.
+     */
+    private static final int[][] rings = new int[32][];
+    static
+    {
+        for(int square=0;square<32;square++)
+        {
+            ArrayList<Integer> ring = new ArrayList<Integer>();
+            int visited = 1<<square;
+            int current = 1<<square;
+            while(true)
+            {
+                int next = 0;
+                for(int sq=0;sq<32;sq++)
+                    if((current&1<<sq)!=0)
+                        for(Position pos : getNeighbours(Position.getPosition(sq)))
+                            next |= 1<<pos.getSquare();
+                next &= ~visited;
+                if(next==0)
+                    break;
+                ring.add(next);
+                visited |= next;
+                current = next;
+            }
+            rings[square] = new int[ring.size()];
+            for(int d=0;d<ring.size();d++)
+                rings[square][d] = ring.get(d);
+        }
+    }
+    
+    /**
+     * The square is covered by the player with more pieces in the closest ring around it
+     * which contains any piece. The piece on the square itself does not count.
+     *
+     * @return    the player who covers the square, 0 if nobody does
+     */
+    private static int getCover(int black, int white, int square)
+    {
+        for(int ring : rings[square])
+        {
+            int count1 = Integer.bitCount(ring&black);
+            int count2 = Integer.bitCount(ring&white);
+            if(count1>count2)
+                return 1;
+            else if(count2>count1)
+                return 2;
+            else if(count1>0)
+                return 0;
+        }
+        return 0;
+    }
+    
+    // One point for each covered field (closest piece is friendly)
+    private static int getCoverVal(State state)
+    {
+        int val = 0;
+        int black = state.getBlack();
+        int white = state.getWhite();
+        
+        for(int square=0;square<32;square++)
+            val += getPlayerFactor(getCover(black,white,square));
+        
+        return val;
+    }
+    
+    /**
+     * A piece is worth more if it is a king or closer to the promotion line.
+     * The points for neighbouring own pieces are added by the state.
+     *
+     * @param stone     the piece 1..4
+     * @param square    the index of a dark square (0..31)
+     *
+     * @return    the value of the piece on the square
+     */
+    public static int getMaterial(int stone, int square)
+    {
+        return material[stone][square];
+    }
+    
+    private static final int[][] material = new int[5][32];
+    static
+    {
+        for(int stone=1;stone<=4;stone++)
+            for(int square=0;square<32;square++)
+            {
+                int player = getPlayer(stone);
+                int y = Position.getPosition(square).getY();
+                int val;
+                if(isKing(stone))
+                    val = 16;
+                else
+                    if(player==1)
+                        val = 2*(8-y);
+                    else
+                        val = 2*(1+y);
+                material[stone][square] = getPlayerFactor(player)*(5+val);
+            }
+    }
+    
+    /**
+     * The piece values are kept up to date by the state with every move,
+     * only the moves, captures and the covered fields are counted here.
+     */
+    public static int evaluate(State state)
+    {
+        int val = 0;
+        int turn = state.getTurn();
+        int other = State.otherPlayer(turn);
+        
+        // Turn .. 3 points
+        val += getPlayerFactor(turn)*3;
+        
+        // Add individual points for each piece and one point for each possible move
+        val += state.getPieceScore();
+        val += state.getMobility();
+            
+        // Add 7 points for each capturing move
+        val += state.getCaptureCount(turn)*getPlayerFactor(turn)*7;
+        val += state.getCaptureCount(other)*getPlayerFactor(other)*7;
+        
+        // Add 1 point for each covered field
+        val += getCoverVal(state);  
+            
+        return val;
+    }
+}
@@ -1,6 +1,5 @@
-import java.io.FileInputStream;
-import java.io.FileNotFoundException;
-import javafx.scene.image.Image;
+package engine;
+
 /**
  * The class Error handles all output of error messages. 
  * Some members are static final since they are defined before and never changed
@@ -34,24 +33,4 @@ public class Error
         //System.out.println(" --- ERROR ---\n " + msg + ".\n -------------");
         Log.write("ERROR: "+ msg + "."); 
     }
-    
-    /**
-     * Access the error symbol for images which cannot be found.
-     *
-     * @return The error symbol image
-     */
-    public static Image getImg()
-    {
-        String pathError = "img/error.png";
-        Image errorImage = null;
-        try
-        {
-            errorImage = new Image(new FileInputStream(pathError));
-        }
-        catch (FileNotFoundException e)
-        {
-            Error.send(false,"Can't find path \""+pathError+"\"\n Error: "+e);
-        }
-        return errorImage;
-    }
 }
@@ -0,0 +1,93 @@
+package engine;
+
+import java.util.concurrent.atomic.AtomicLongArray;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * The class EvaluationCache stores the evaluation of positions, so that a position
+ * which is reached again in another subtree or in the next search is only evaluated once.
+ *
+ * The cache is a fixed-size array with one long per entry, the upper half of the hash of
+ * the position and the score:
+ *
+ * bits  0..31 .. score
+ * bits 32..63 .. upper half of the hash, the lower half is the index of the entry
+ *
+ * A new entry always replaces the old one. The cache is shared by all search threads
+ * without locks, each entry is written at once and can't be torn.
+ *
+ * @author  Lukas Gunthermann
+ * @version 1.0
+ */
+public class EvaluationCache
+{
+    private final AtomicLongArray table;
+    private final int mask;
+    
+    private final LongAdder hits;
+    private final LongAdder misses;
+    
+    public int getSize(){ return this.table.length(); }
+    public long getHits(){ return this.hits.sum(); }
+    public long getMisses(){ return this.misses.sum(); }
+    
+    /**
+     * Constructor
+     *
+     * @param megabytes     the size of the cache, it is rounded down to a power of two entries
+     */
+    public EvaluationCache(int megabytes)
+    {
+        long entries = ((long)megabytes<<20)/8;
+        int size = Math.max(1,Integer.highestOneBit((int)Math.min(entries,1<<28)));
+        this.table = new AtomicLongArray(size);
+        this.mask = size-1;
+        this.hits = new LongAdder();
+        this.misses = new LongAdder();
+    }
+    
+    /**
+     * Not thread-safe, the cache must not be used by a search at the same time.
+     */
+    public void clear()
+    {
+        for(int i=0;i<this.table.length();i++)
+            this.table.setOpaque(i,0L);
+        this.hits.reset();
+        this.misses.reset();
+    }
+    
+    /**
+     * @return    the evaluation of the state, see Analysis.evaluate
+     */
+    public int evaluate(State state)
+    {
+        long hash = state.getHash();
+        int index = (int)hash&this.mask;
+        long entry = this.table.getOpaque(index);
+        if(entry!=0&&(entry>>>32)==(hash>>>32))
+        {
+            this.hits.increment();
+            return (int)entry;
+        }
+        this.misses.increment();
+        int score = Analysis.evaluate(state);
+        this.table.setOpaque(index,(hash&0xFFFFFFFF00000000L)|(score&0xFFFFFFFFL));
+        return score;
+    }
+    
+    /**
+     * @return    the share of evaluations which were found in the cache
+     */
+    public double getHitRate()
+    {
+        long hits = this.getHits();
+        long probes = hits+this.getMisses();
+        return probes==0?0.0:(double)hits/probes;
+    }
+    
+    public String getString()
+    {
+        return "EC "+this.getHits()+" hits / "+this.getMisses()+" misses ("+Math.round(100*this.getHitRate())+"%)";
+    }
+}
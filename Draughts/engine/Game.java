@@ -0,0 +1,130 @@
+package engine;
+
+import java.util.*;
+
+/**
+ * The class Game plays a game between two players without a user interface.
+ * The moves of the computer players are requested from the players, the moves of
+ * other players (humans, other engines) are passed to the game.
+ *
+ *   Game game = new Game(new Player("Black",false,2),new Player("White",false,2));
+ *   int winner = game.play();
+ *
+ * A game which reaches the maximum number of plies is a draw.
+ *
+ * @author  Lukas Gunthermann
+ * @version 1.0
+ */
+public class Game
+{
+    private final Player[] players;
+    private final State state;
+    private final ArrayList<Move> moves;
+    private int maxPlies;
+    
+    public static final int defaultMaxPlies = 200;
+    
+    public State getState(){ return this.state.clone(); }
+    public int getTurn(){ return this.state.getTurn(); }
+    public List<Move> getMoves(){ return Collections.unmodifiableList(this.moves); }
+    public int getMaxPlies(){ return this.maxPlies; }
+    public void setMaxPlies(int plies){ this.maxPlies = Math.max(1,plies); }
+    
+    /**
+     * Constructor
+     *
+     * @param black     the player who moves first
+     * @param white     the second player
+     */
+    public Game(Player black, Player white)
+    {
+        this.players = new Player[]{black,white};
+        this.state = new State();
+        this.moves = new ArrayList<Move>();
+        this.maxPlies = defaultMaxPlies;
+    }
+    
+    /**
+     * @param player    1 (black) or 2 (white)
+     */
+    public Player getPlayer(int player)
+    {
+        return this.players[player-1];
+    }
+    
+    /**
+     * @return    true, if the player to move has no legal moves or the maximum number of plies is reached
+     */
+    public boolean isOver()
+    {
+        return this.state.isOver()||this.moves.size()>=this.maxPlies;
+    }
+    
+    /**
+     * @return    the player who won, 0 for a draw or a game which is not over yet
+     */
+    public int getWinner()
+    {
+        if(!this.state.isOver())
+            return 0;
+        return State.otherPlayer(this.state.getTurn());
+    }
+    
+    /**
+     * Make a move of the player to move.
+     *
+     * @return    true, if the move was legal, otherwise false
+     */
+    public boolean move(Move move)
+    {
+        if(this.isOver()||!this.state.isValidMove(move))
+            return false;
+        this.state.move(move);
+        this.moves.add(move);
+        return true;
+    }
+    
+    /**
+     * Let the computer player to move search a move, the move is not made.
+     *
+     * @return    the move of the player, null if the game is over or the player is human
+     */
+    public Move requestMove()
+    {
+        Player player = this.getPlayer(this.state.getTurn());
+        if(this.isOver()||player.isHuman())
+            return null;
+        return player.getAImove(this.state.clone());
+    }
+    
+    /**
+     * Let the computer player to move search a move and make it.
+     *
+     * @return    the move, null if no move was made
+     */
+    public Move playMove()
+    {
+        Move move = this.requestMove();
+        if(move==null||!this.move(move))
+            return null;
+        return move;
+    }
+    
+    /**
+     * Play the game to the end, both players must be computer players.
+     *
+     * @return    the winner, see getWinner
+     */
+    public int play()
+    {
+        while(!this.isOver())
+        {
+            if(this.playMove()==null)
+            {
+                Error.send(false,"Player "+this.getPlayer(this.state.getTurn()).getName()+" didn't move");
+                break;
+            }
+        }
+        return this.getWinner();
+    }
+}
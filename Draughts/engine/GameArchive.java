@@ -0,0 +1,317 @@
+package engine;
+
+import java.io.File;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.StandardOpenOption;
+import java.util.Arrays;
+
+/**
+ * The class GameArchive reads the games of a game archive, which is written by the GameArchiveWriter.
+ *
+ * The archive is a binary file with a header and the games one after another:
+ *
+ * header .. magic number (int)
+ * game   .. flags (byte), winner (byte), difficulty of black and white (byte, byte),
+ *           names of black and white (length as unsigned byte, UTF-8), number of moves (unsigned short),
+ *           the moves (byte each), with the flag stats the statistics of each move
+ *           (score as int, nodes as long, time in ms as int)
+ *
+ * A move is coded in a single byte: the source square (5 bits), the direction (2 bits: up left,
+ * up right, down left, down right) and whether the move is a jump (1 bit). Every jump of a
+ * capturing sequence is a move of its own, like in the game.
+ *
+ * The file is memory-mapped and the archive is read game by game without copying the data,
+ * names and states are only created when they are asked for:
+ *
+ *   GameArchive archive = GameArchive.open(new File("games.bin"));
+ *   while(archive.next())
+ *       if(archive.getWinner()==1)
+ *           ...archive.getState(archive.getMoveCount())...
+ *
+ * Usage: java engine.GameArchive file
+ *
+ * @author  Lukas Gunthermann
+ * @version 1.0
+ */
+public class GameArchive
+{
+    public static final int magic = 0x44475243;
+    public static final int headerSize = 4;
+    public static final int statsSize = 16;
+    public static final int maxMoves = 0xFFFF;
+    public static final int statsFlag = 1;
+    
+    /**
+     * The largest game, a new part of the file is mapped when less is left
+     */
+    private static final int maxGameSize = 4+2*256+2+maxMoves*(1+statsSize);
+    private static final long windowSize = 256L*1024*1024;
+    
+    /**
+     * The byte of each move code and the move code of each byte, -1 if there is none
+     */
+    private static final int[] bytes = new int[32*32];
+    private static final int[] codes = new int[256];
+    static
+    {
+        Arrays.fill(bytes,-1);
+        Arrays.fill(codes,-1);
+        for(int src=0;src<32;src++)
+        {
+            Position position = Position.getPosition(src);
+            for(int direction=0;direction<4;direction++)
+                for(int jump=0;jump<2;jump++)
+                {
+                    int X = position.X+((direction&1)==0?-1:1)*(1+jump);
+                    int Y = position.Y+((direction&2)==0?-1:1)*(1+jump);
+                    Position target = new Position(X,Y);
+                    if(!target.isValid())
+                        continue;
+                    int code = Move.getCode(src,target.getSquare());
+                    int b = src<<3|direction<<1|jump;
+                    bytes[code] = b;
+                    codes[b] = code;
+                }
+        }
+    }
+    
+    /**
+     * @return    the byte of the move code, -1 if it is no step or jump
+     */
+    public static int encode(int code)
+    {
+        return bytes[code];
+    }
+    
+    /**
+     * @return    the move code of the byte, -1 if the target is outside the board
+     */
+    public static int decode(int b)
+    {
+        return codes[b&0xFF];
+    }
+    
+    private final File file;
+    private final FileChannel channel;
+    private final long size;
+    
+    /**
+     * The mapped part of the file starts at offset
+     */
+    private ByteBuffer buffer;
+    private long offset;
+    
+    /**
+     * Start of the current game in the buffer and of its parts
+     */
+    private int game;
+    private int names;
+    private int moves;
+    private int stats;
+    private int moveCount;
+    private int games;
+    
+    public int getGames(){ return this.games; }
+    public boolean hasStats(){ return (this.buffer.get(this.game)&statsFlag)!=0; }
+    public int getWinner(){ return this.buffer.get(this.game+1); }
+    public int getMoveCount(){ return this.moveCount; }
+    
+    public static void main(String[] args)
+    {
+        if(args.length<1)
+        {
+            System.out.println("Usage: java engine.GameArchive file");
+            return;
+        }
+        GameArchive archive = open(new File(args[0]));
+        if(archive==null)
+            return;
+        long startTime = System.nanoTime();
+        int[] winners = new int[3];
+        long moves = 0;
+        while(archive.next())
+        {
+            winners[archive.getWinner()]++;
+            moves += archive.getMoveCount();
+        }
+        long time = (System.nanoTime()-startTime)/1000000;
+        archive.close();
+        int games = archive.getGames();
+        System.out.println(games+" games read in "+time+"ms");
+        System.out.println("black won "+winners[1]+", white won "+winners[2]+", draws "+winners[0]);
+        System.out.println("average length "+String.format("%.1f",games==0?0.0:(double)moves/games)+" plies");
+    }
+    
+    /**
+     * @return    the archive of the file, null if it can't be read
+     */
+    public static GameArchive open(File file)
+    {
+        try
+        {
+            FileChannel channel = FileChannel.open(file.toPath(),StandardOpenOption.READ);
+            GameArchive archive = new GameArchive(file,channel);
+            if(archive.size<headerSize||archive.buffer.getInt(0)!=magic)
+            {
+                Error.send(false,"Game archive "+file.getName()+" is not valid");
+                archive.close();
+                return null;
+            }
+            return archive;
+        }
+        catch(IOException e)
+        {
+            Error.send(false,"Can't read game archive "+file.getName()+"\n Error: "+e);
+            return null;
+        }
+    }
+    
+    private GameArchive(File file, FileChannel channel) throws IOException
+    {
+        this.file = file;
+        this.channel = channel;
+        this.size = channel.size();
+        this.offset = 0;
+        this.buffer = channel.map(FileChannel.MapMode.READ_ONLY,0,Math.min(this.size,windowSize));
+        this.game = -1;
+        this.moves = headerSize;
+        this.stats = headerSize;
+        this.moveCount = 0;
+        this.games = 0;
+    }
+    
+    public void close()
+    {
+        try
+        {
+            this.channel.close();
+        }
+        catch(IOException e)
+        {
+            Error.send(false,"Can't close game archive "+this.file.getName()+"\n Error: "+e);
+        }
+    }
+    
+    /**
+     * Go to the next game of the archive.
+     *
+     * @return    false, if there are no more games or the next game is not valid
+     */
+    public boolean next()
+    {
+        int start = this.game<0?headerSize:this.stats+(this.hasStats()?statsSize*this.moveCount:0);
+        try
+        {
+            if(start>this.buffer.limit()-maxGameSize&&this.offset+this.buffer.limit()<this.size)
+            {
+                this.offset += start;
+                this.buffer = this.channel.map(FileChannel.MapMode.READ_ONLY,this.offset,Math.min(this.size-this.offset,windowSize));
+                start = 0;
+            }
+        }
+        catch(IOException e)
+        {
+            Error.send(false,"Can't read game archive "+this.file.getName()+"\n Error: "+e);
+            return false;
+        }
+        
+        ByteBuffer buffer = this.buffer;
+        int limit = buffer.limit();
+        if(start+6>limit)
+            return false;
+        int names = start+4;
+        int black = buffer.get(names)&0xFF;
+        if(names+1+black>=limit)
+            return false;
+        int white = buffer.get(names+1+black)&0xFF;
+        int count = names+2+black+white;
+        if(count+2>limit)
+            return false;
+        int moveCount = buffer.getShort(count)&0xFFFF;
+        boolean stats = (buffer.get(start)&statsFlag)!=0;
+        if(count+2+moveCount*(stats?1+statsSize:1)>limit||buffer.get(start+1)<0||buffer.get(start+1)>2)
+        {
+            Error.send(false,"Game "+(this.games+1)+" of the game archive "+this.file.getName()+" is not valid");
+            return false;
+        }
+        this.game = start;
+        this.names = names;
+        this.moves = count+2;
+        this.stats = this.moves+moveCount;
+        this.moveCount = moveCount;
+        this.games++;
+        return true;
+    }
+    
+    /**
+     * @param player    1 (black) or 2 (white)
+     */
+    public int getDifficulty(int player)
+    {
+        return this.buffer.get(this.game+1+player);
+    }
+    
+    /**
+     * @param player    1 (black) or 2 (white)
+     */
+    public String getName(int player)
+    {
+        int name = this.names;
+        if(player==2)
+            name += 1+(this.buffer.get(name)&0xFF);
+        byte[] bytes = new byte[this.buffer.get(name)&0xFF];
+        for(int i=0;i<bytes.length;i++)
+            bytes[i] = this.buffer.get(name+1+i);
+        return new String(bytes,StandardCharsets.UTF_8);
+    }
+    
+    /**
+     * @return    the code of the i-th move of the game, -1 if the byte is no move
+     */
+    public int getMoveCode(int i)
+    {
+        return decode(this.buffer.get(this.moves+i));
+    }
+    
+    public Move getMove(int i)
+    {
+        int code = this.getMoveCode(i);
+        return code<0?null:Move.getMove(code);
+    }
+    
+    /**
+     * The statistics are only available if the game has them, see hasStats.
+     *
+     * @return    the result of the search of the i-th move, for player 1 a higher value is better
+     */
+    public int getScore(int i){ return this.buffer.getInt(this.stats+i*statsSize); }
+    public long getNodes(int i){ return this.buffer.getLong(this.stats+i*statsSize+4); }
+    public int getTime(int i){ return this.buffer.getInt(this.stats+i*statsSize+12); }
+    
+    /**
+     * Replay the first moves of the game.
+     *
+     * @param plies     the number of moves to play
+     * @return    the state after the moves, null if one of them is not legal
+     */
+    public State getState(int plies)
+    {
+        State state = new State();
+        int[] moves = new int[State.maxMoves];
+        for(int i=0;i<Math.min(plies,this.moveCount);i++)
+        {
+            int code = this.getMoveCode(i);
+            int count = state.generateMoves(moves);
+            boolean legal = false;
+            for(int j=0;j<count;j++)
+                legal |= moves[j]==code;
+            if(!legal)
+                return null;
+            state.doMove(code);
+        }
+        return state;
+    }
+}
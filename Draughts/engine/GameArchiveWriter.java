@@ -0,0 +1,158 @@
+package engine;
+
+import java.io.BufferedOutputStream;
+import java.io.Closeable;
+import java.io.File;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.StandardOpenOption;
+import java.util.Arrays;
+import java.util.List;
+
+/**
+ * The class GameArchiveWriter appends games to a game archive, see GameArchive for the format.
+ * The games are written one by one through a buffer, so an archive can grow without limit.
+ * The writer can be shared by several threads, e.g. by the games of a Tournament.
+ *
+ *   try(GameArchiveWriter writer = new GameArchiveWriter(new File("games.bin")))
+ *   {
+ *       writer.write(game);
+ *   }
+ *
+ * @author  Lukas Gunthermann
+ * @version 1.0
+ */
+public class GameArchiveWriter implements Closeable
+{
+    private final OutputStream out;
+    private int games;
+    
+    public synchronized int getGames(){ return this.games; }
+    
+    /**
+     * Open the archive to append games, a new archive is created if the file doesn't exist.
+     *
+     * @throws IOException    if the file can't be opened or is no game archive
+     */
+    public GameArchiveWriter(File file) throws IOException
+    {
+        if(file.exists()&&file.length()>0)
+        {
+            try(FileChannel channel = FileChannel.open(file.toPath(),StandardOpenOption.READ))
+            {
+                ByteBuffer header = ByteBuffer.allocate(GameArchive.headerSize);
+                channel.read(header);
+                if(header.hasRemaining()||header.getInt(0)!=GameArchive.magic)
+                    throw new IOException(file.getName()+" is no game archive");
+            }
+            this.out = new BufferedOutputStream(Files.newOutputStream(file.toPath(),StandardOpenOption.APPEND));
+        }
+        else
+        {
+            this.out = new BufferedOutputStream(Files.newOutputStream(file.toPath()));
+            this.out.write(ByteBuffer.allocate(GameArchive.headerSize).putInt(GameArchive.magic).array());
+        }
+        this.games = 0;
+    }
+    
+    /**
+     * Write a game without statistics of the moves.
+     */
+    public void write(Game game) throws IOException
+    {
+        this.write(game,null,null,null);
+    }
+    
+    /**
+     * Write a game with the statistics of each move, moves without a search have 0 nodes.
+     *
+     * @param scores    the result of the search of each move, for player 1 a higher value is better
+     * @param nodes     the explored nodes of each move
+     * @param times     the time of each move in ms
+     */
+    public void write(Game game, int[] scores, long[] nodes, int[] times) throws IOException
+    {
+        Player black = game.getPlayer(1);
+        Player white = game.getPlayer(2);
+        this.write(black.getName(),black.getDifficulty(),white.getName(),white.getDifficulty(),
+            game.getWinner(),game.getMoves(),scores,nodes,times);
+    }
+    
+    /**
+     * Write a game, the statistics are left out if scores is null.
+     *
+     * @param winner    the player who won, 0 for a draw
+     * @param moves     the moves from the initial state
+     */
+    public void write(String black, int blackDifficulty, String white, int whiteDifficulty, int winner,
+        List<Move> moves, int[] scores, long[] nodes, int[] times) throws IOException
+    {
+        if(moves.size()>GameArchive.maxMoves)
+            throw new IOException("A game can't have more than "+GameArchive.maxMoves+" moves");
+        byte[] blackName = getName(black);
+        byte[] whiteName = getName(white);
+        boolean stats = scores!=null;
+        ByteBuffer buffer = ByteBuffer.allocate(6+blackName.length+whiteName.length+2
+            +moves.size()*(stats?1+GameArchive.statsSize:1));
+        buffer.put((byte)(stats?GameArchive.statsFlag:0));
+        buffer.put((byte)winner);
+        buffer.put((byte)blackDifficulty);
+        buffer.put((byte)whiteDifficulty);
+        buffer.put((byte)blackName.length).put(blackName);
+        buffer.put((byte)whiteName.length).put(whiteName);
+        buffer.putShort((short)moves.size());
+        for(Move move : moves)
+        {
+            int b = GameArchive.encode(move.getCode());
+            if(b<0)
+                throw new IOException("Move "+move.getNotation()+" can't be written");
+            buffer.put((byte)b);
+        }
+        if(stats)
+        {
+            for(int i=0;i<moves.size();i++)
+            {
+                buffer.putInt(scores[i]);
+                buffer.putLong(nodes[i]);
+                buffer.putInt(times[i]);
+            }
+        }
+        synchronized(this)
+        {
+            this.out.write(buffer.array());
+            this.games++;
+        }
+    }
+    
+    /**
+     * @return    the UTF-8 bytes of the name, shortened to 255 bytes
+     */
+    private static byte[] getName(String name)
+    {
+        byte[] bytes = name.getBytes(StandardCharsets.UTF_8);
+        int length = bytes.length;
+        // don't cut a character in two
+        if(length>255)
+        {
+            length = 255;
+            while((bytes[length]&0xC0)==0x80)
+                length--;
+        }
+        return length==bytes.length?bytes:Arrays.copyOf(bytes,length);
+    }
+    
+    public synchronized void flush() throws IOException
+    {
+        this.out.flush();
+    }
+    
+    @Override
+    public synchronized void close() throws IOException
+    {
+        this.out.close();
+    }
+}
@@ -0,0 +1,35 @@
+package engine;
+
+import jdk.jfr.*;
+
+/**
+ * The class IterationEvent records one iteration of the iterative deepening of a search thread
+ * in Java Flight Recorder. Short iterations are left out, the threshold can be changed in the
+ * settings of the recording.
+ *
+ * @author  Lukas Gunthermann
+ * @version 1.0
+ */
+@Name("engine.Iteration")
+@Label("Search Iteration")
+@Category({"Draughts","Search"})
+@Description("One iteration of the iterative deepening of a search thread")
+@Threshold("1 ms")
+class IterationEvent extends Event
+{
+    @Label("Depth")
+    int depth;
+    
+    @Label("Nodes")
+    long nodes;
+    
+    @Label("Score")
+    int score;
+    
+    @Label("Main Thread")
+    boolean main;
+    
+    @Label("Completed")
+    @Description("False, if the iteration was aborted by the budget of the search")
+    boolean completed;
+}
@@ -0,0 +1,310 @@
+package engine;
+
+import java.io.BufferedOutputStream;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.*;
+import java.time.Instant;
+import java.time.ZoneId;
+import java.time.format.DateTimeFormatter;
+import java.util.ArrayList;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+import java.util.function.Consumer;
+
+/**
+ * The class Log is used to write the logfile with all user actions.
+ *
+ * The lines are written by a background thread, so that a game doesn't wait for the disk.
+ * They are collected in a bounded queue, a full queue blocks the writing threads until there
+ * is space again, but at most for timeout ms, then the line is written at once. The file
+ * stays open and is flushed when the queue is empty or at least once per flushInterval.
+ * A logfile larger than maxSize is renamed to logfile.1.txt (the older ones to logfile.2.txt
+ * ... up to backups) and a new logfile is started.
+ *
+ * The remaining lines are written when the program ends, see close.
+ *
+ * @author  Lukas Gunthermann
+ * @version 1.0
+ */
+public class Log
+{
+    private static final Path defaultLogFile = Paths.get("log","logfile.txt");
+    
+    public static final int capacity = 8192;
+    public static final long flushInterval = 1000;
+    public static final long maxSize = 10*1024*1024;
+    public static final int backups = 3;
+    public static final long timeout = 5000;
+    
+    private static final DateTimeFormatter formatter =
+        DateTimeFormatter.ofPattern("yyyy/MM/dd HH:mm:ss ").withZone(ZoneId.systemDefault());
+    
+    /**
+     * A line of the log with the time of the call to write
+     */
+    private static final class Entry
+    {
+        private final long time;
+        private final String text;
+        
+        private Entry(long time, String text)
+        {
+            this.time = time;
+            this.text = text;
+        }
+    }
+    
+    /**
+     * Wakes up the writer when the log is closed
+     */
+    private static final Entry closing = new Entry(0,null);
+    
+    private static final ArrayBlockingQueue<Entry> queue = new ArrayBlockingQueue<Entry>(capacity);
+    private static Thread writer = null;
+    
+    /**
+     * Shared by the writing threads, close needs it alone, so that no line is queued after the closing marker
+     */
+    private static final ReentrantReadWriteLock lock = new ReentrantReadWriteLock();
+    private static volatile boolean closed = false;
+    private static volatile boolean echo = true;
+    
+    /**
+     * Called with every line, e.g. to show the line in another place than stdout
+     */
+    private static volatile Consumer<String> listener = null;
+    
+    /**
+     * @param on    whether the lines are printed to stdout as well, true by default
+     */
+    public static void setEcho(boolean on){ echo = on; }
+    public static boolean isEcho(){ return echo; }
+    public static void setListener(Consumer<String> consumer){ listener = consumer; }
+    
+    public static void write(String s)
+    {
+        if(echo)
+            System.out.println(s);
+        Consumer<String> consumer = listener;
+        if(consumer!=null)
+            consumer.accept(s);
+        Entry entry = new Entry(System.currentTimeMillis(),s);
+        lock.readLock().lock();
+        try
+        {
+            if(start()&&queue.offer(entry,timeout,TimeUnit.MILLISECONDS))
+                return;
+        }
+        catch(InterruptedException e)
+        {
+            Thread.currentThread().interrupt();
+        }
+        finally
+        {
+            lock.readLock().unlock();
+        }
+        writeDirectly(entry);
+    }
+    
+    /**
+     * Append a line to the given file at once, without the background thread.
+     */
+    public static void write(String f, String s) throws IOException
+    {
+        try(OutputStream out = open(Paths.get(f)))
+        {
+            out.write(getLine(new Entry(System.currentTimeMillis(),s)));
+        }
+    }
+    
+    private static void writeDirectly(Entry entry)
+    {
+        try
+        {
+            write(defaultLogFile.toString(),entry.text);
+        }
+        catch(IOException e)
+        {
+            System.out.println("Can't write logfile: "+e);
+        }
+    }
+    
+    /**
+     * @return    the line in UTF-8, its length is the size in the logfile
+     */
+    private static byte[] getLine(Entry entry)
+    {
+        return (formatter.format(Instant.ofEpochMilli(entry.time))+" "+entry.text+"\n").getBytes(StandardCharsets.UTF_8);
+    }
+    
+    private static OutputStream open(Path file) throws IOException
+    {
+        if(file.getParent()!=null)
+            Files.createDirectories(file.getParent());
+        return new BufferedOutputStream(Files.newOutputStream(file,StandardOpenOption.CREATE,StandardOpenOption.APPEND));
+    }
+    
+    /**
+     * Start the writer with the first line.
+     *
+     * @return    false, if the log is closed
+     */
+    private static synchronized boolean start()
+    {
+        if(closed)
+            return false;
+        if(writer==null)
+        {
+            writer = new Thread(Log::run,"Log");
+            writer.setDaemon(true);
+            writer.start();
+            Runtime.getRuntime().addShutdownHook(new Thread(Log::close));
+        }
+        return true;
+    }
+    
+    /**
+     * Write all lines which are not written yet and stop the writer. Later lines are written
+     * at once without the background thread.
+     */
+    public static void close()
+    {
+        Thread thread;
+        // the writing threads hold the lock for at most timeout ms
+        lock.writeLock().lock();
+        try
+        {
+            if(closed)
+                return;
+            closed = true;
+            thread = writer;
+            // the marker is the last entry, later lines are written directly
+            if(thread==null||!queue.offer(closing,timeout,TimeUnit.MILLISECONDS))
+                return;
+        }
+        catch(InterruptedException e)
+        {
+            Thread.currentThread().interrupt();
+            return;
+        }
+        finally
+        {
+            lock.writeLock().unlock();
+        }
+        try
+        {
+            thread.join(timeout);
+        }
+        catch(InterruptedException e)
+        {
+            Thread.currentThread().interrupt();
+        }
+    }
+    
+    /**
+     * The loop of the writer thread.
+     */
+    private static void run()
+    {
+        OutputStream out = null;
+        long size = 0;
+        long lastFlush = System.currentTimeMillis();
+        ArrayList<Entry> entries = new ArrayList<Entry>();
+        boolean running = true;
+        while(running)
+        {
+            try
+            {
+                Entry first = queue.poll(flushInterval,TimeUnit.MILLISECONDS);
+                if(first!=null)
+                {
+                    entries.add(first);
+                    queue.drainTo(entries);
+                }
+                for(Entry entry : entries)
+                {
+                    if(entry==closing)
+                    {
+                        running = false;
+                        continue;
+                    }
+                    if(out==null)
+                    {
+                        out = open(defaultLogFile);
+                        size = Files.size(defaultLogFile);
+                    }
+                    byte[] line = getLine(entry);
+                    out.write(line);
+                    size += line.length;
+                    if(size>=maxSize)
+                    {
+                        out.close();
+                        out = null;
+                        rotate();
+                    }
+                }
+                entries.clear();
+                
+                // flush when there is nothing more to write or after the interval
+                long time = System.currentTimeMillis();
+                if(out!=null&&(queue.isEmpty()||time-lastFlush>=flushInterval))
+                {
+                    out.flush();
+                    lastFlush = time;
+                }
+            }
+            catch(InterruptedException e)
+            {
+                running = false;
+            }
+            catch(IOException|RuntimeException e)
+            {
+                // the writer keeps running, otherwise the queue would fill up and never be written
+                System.out.println("Can't write logfile: "+e);
+                running = !entries.contains(closing);
+                entries.clear();
+                out = close(out);
+            }
+        }
+        close(out);
+    }
+    
+    private static OutputStream close(OutputStream out)
+    {
+        if(out!=null)
+        {
+            try
+            {
+                out.close();
+            }
+            catch(IOException e)
+            {
+                System.out.println("Can't close logfile: "+e);
+            }
+        }
+        return null;
+    }
+    
+    /**
+     * Rename logfile.txt to logfile.1.txt, logfile.1.txt to logfile.2.txt and so on.
+     * The oldest backup is deleted.
+     */
+    private static void rotate() throws IOException
+    {
+        Files.deleteIfExists(getBackup(backups));
+        for(int i=backups-1;i>=1;i--)
+            if(Files.exists(getBackup(i)))
+                Files.move(getBackup(i),getBackup(i+1));
+        Files.move(defaultLogFile,getBackup(1));
+    }
+    
+    private static Path getBackup(int i)
+    {
+        String name = defaultLogFile.getFileName().toString();
+        int dot = name.lastIndexOf('.');
+        return defaultLogFile.resolveSibling(name.substring(0,dot)+"."+i+name.substring(dot));
+    }
+}
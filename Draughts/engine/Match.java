@@ -0,0 +1,207 @@
+package engine;
+
+/**
+ * The class Match compares two computer players, e.g. before and after a change of the engine.
+ * The games are played like in a Tournament, but the match stops as soon as a sequential
+ * probability ratio test (SPRT) decides between two hypotheses about the Elo difference:
+ *
+ * H0 .. the first player is elo0 stronger than the second one
+ * H1 .. the first player is elo1 stronger than the second one
+ *
+ * After every game the log-likelihood ratio (LLR) of the results is compared with the bounds
+ * ln(beta/(1-alpha)) and ln((1-beta)/alpha), which accept H0 and H1. The LLR is the normal
+ * approximation of the generalized SPRT with the wins, draws and losses of the games. The Elo
+ * difference is written with its 95% confidence interval.
+ *
+ * Usage: java engine.Match [-elo0 n] [-elo1 n] [-alpha p] [-beta p] [tournament options] player player
+ *
+ * The tournament options are -games, -threads, -plies, -random and -seed, see Tournament.
+ * The number of games of the tournament (-games) is the most games the match plays.
+ *
+ * @author  Lukas Gunthermann
+ * @version 1.0
+ */
+public class Match
+{
+    private final Tournament tournament;
+    private double elo0;
+    private double elo1;
+    private double alpha;
+    private double beta;
+    
+    /**
+     * 1 if H1 is accepted, -1 if H0 is accepted, 0 if there is no decision yet
+     */
+    private int decision;
+    
+    public static final int defaultGames = 20000;
+    
+    public int getDecision(){ return this.decision; }
+    public void setHypotheses(double elo0, double elo1){ this.elo0 = elo0; this.elo1 = elo1; }
+    public void setErrors(double alpha, double beta){ this.alpha = alpha; this.beta = beta; }
+    
+    public static void main(String[] args)
+    {
+        Tournament tournament = Tournament.parse(args,"-elo0","-elo1","-alpha","-beta");
+        if(tournament==null||tournament.getPlayerCount()!=2)
+        {
+            System.out.println("Usage: java engine.Match [-elo0 n] [-elo1 n] [-alpha p] [-beta p] [tournament options] player player");
+            return;
+        }
+        if(Tournament.getOption(args,"-games")==null)
+            tournament.setGames(defaultGames);
+        
+        Match match = new Match(tournament);
+        try
+        {
+            match.setHypotheses(getNumber(args,"-elo0",0),getNumber(args,"-elo1",5));
+            match.setErrors(getNumber(args,"-alpha",0.05),getNumber(args,"-beta",0.05));
+        }
+        catch(NumberFormatException e)
+        {
+            Error.send(false,"Can't read the command line\n Error: "+e);
+            return;
+        }
+        match.run();
+        System.out.print(tournament.getTable());
+        System.out.println(match.getSummary());
+    }
+    
+    private static double getNumber(String[] args, String option, double value)
+    {
+        String string = Tournament.getOption(args,option);
+        return string==null?value:Double.parseDouble(string);
+    }
+    
+    /**
+     * Constructor
+     *
+     * @param tournament    the tournament of the two players
+     */
+    public Match(Tournament tournament)
+    {
+        this.tournament = tournament;
+        this.elo0 = 0;
+        this.elo1 = 5;
+        this.alpha = 0.05;
+        this.beta = 0.05;
+        this.decision = 0;
+    }
+    
+    /**
+     * Play until the test decides or all games of the tournament are played.
+     */
+    public void run()
+    {
+        this.tournament.setListener(tournament -> this.update());
+        this.tournament.run();
+    }
+    
+    /**
+     * Called after every game, the games which are already running are finished after a decision.
+     */
+    private synchronized void update()
+    {
+        System.out.println(this.getString());
+        if(this.decision!=0)
+            return;
+        double llr = this.getLLR();
+        if(llr>=this.getUpperBound())
+            this.decision = 1;
+        else if(llr<=this.getLowerBound())
+            this.decision = -1;
+        if(this.decision!=0)
+            this.tournament.stop();
+    }
+    
+    public double getLowerBound(){ return Math.log(this.beta/(1-this.alpha)); }
+    public double getUpperBound(){ return Math.log((1-this.beta)/this.alpha); }
+    
+    /**
+     * @return    the expected score of a player who is the given number of Elo points stronger
+     */
+    public static double getScore(double elo)
+    {
+        return 1/(1+Math.pow(10,-elo/400));
+    }
+    
+    /**
+     * @return    the Elo difference of the expected score
+     */
+    public static double getElo(double score)
+    {
+        return -400*Math.log10(1/score-1);
+    }
+    
+    /**
+     * @return    {mean, variance} of the score of a game of the first player
+     */
+    private double[] getStatistics()
+    {
+        Tournament.Result result = this.tournament.getResult(0);
+        int wins = result.getWins();
+        int draws = result.getDraws();
+        int losses = result.getLosses();
+        int games = wins+draws+losses;
+        if(games==0)
+            return new double[]{0.5,0};
+        double mean = (wins+0.5*draws)/games;
+        double variance = (wins*(1-mean)*(1-mean)+draws*(0.5-mean)*(0.5-mean)+losses*mean*mean)/games;
+        return new double[]{mean,variance};
+    }
+    
+    /**
+     * @return    the log-likelihood ratio of H1 against H0
+     */
+    public double getLLR()
+    {
+        int games = this.tournament.getResult(0).getGames();
+        double[] statistics = this.getStatistics();
+        if(statistics[1]==0)
+            return 0;
+        double s0 = getScore(this.elo0);
+        double s1 = getScore(this.elo1);
+        return games*(s1-s0)*(2*statistics[0]-s0-s1)/(2*statistics[1]);
+    }
+    
+    /**
+     * A score of 0 or 1 is limited to 2400 Elo instead of an infinite difference.
+     *
+     * @return    {Elo difference, lower bound, upper bound} of the 95% confidence interval
+     */
+    public double[] getEloRange()
+    {
+        int games = Math.max(1,this.tournament.getResult(0).getGames());
+        double[] statistics = this.getStatistics();
+        double error = 1.96*Math.sqrt(statistics[1]/games);
+        double[] scores = {statistics[0],statistics[0]-error,statistics[0]+error};
+        double[] elo = new double[3];
+        for(int i=0;i<3;i++)
+            elo[i] = getElo(Math.min(Math.max(scores[i],1e-6),1-1e-6));
+        return elo;
+    }
+    
+    /**
+     * @return    the results of the first player, its Elo difference and the LLR with its bounds
+     */
+    public synchronized String getString()
+    {
+        Tournament.Result result = this.tournament.getResult(0);
+        double[] elo = this.getEloRange();
+        return String.format("games %d: +%d =%d -%d, elo %.1f [%.1f, %.1f], LLR %.2f [%.2f, %.2f]",
+            result.getGames(),result.getWins(),result.getDraws(),result.getLosses(),
+            elo[0],elo[1],elo[2],this.getLLR(),this.getLowerBound(),this.getUpperBound());
+    }
+    
+    public synchronized String getSummary()
+    {
+        String first = this.tournament.getPlayer(0).getName();
+        String second = this.tournament.getPlayer(1).getName();
+        switch(this.decision)
+        {
+            case 1: return "H1 accepted: "+first+" is "+this.elo1+" Elo stronger than "+second;
+            case -1: return "H0 accepted: "+first+" is not "+this.elo1+" Elo stronger than "+second;
+            default: return "No decision after "+this.tournament.getResult(0).getGames()+" games";
+        }
+    }
+}
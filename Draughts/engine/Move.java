@@ -0,0 +1,146 @@
+package engine;
+
+public class Move
+{
+    public final Position src;
+    public final Position tar;
+    
+    /**
+     * All moves between two dark squares, indexed by src*32+tar.
+     */
+    private static final Move[] moves = new Move[32*32];
+    
+    /**
+     * The square of the captured piece of each capturing move code, -1 for other codes
+     */
+    private static final int[] capSquares = new int[32*32];
+    static
+    {
+        for(int src=0;src<32;src++)
+            for(int tar=0;tar<32;tar++)
+            {
+                Move move = new Move(Position.getPosition(src),Position.getPosition(tar));
+                moves[src<<5|tar] = move;
+                capSquares[src<<5|tar] = move.isCap()?move.getCapPos().getSquare():-1;
+            }
+    }
+    
+    public Move(Position src, Position tar)
+    {
+        this.src = src;
+        this.tar = tar;
+    }
+    
+    /**
+     * @param src   the index of the source square (0..31)
+     * @param tar   the index of the target square (0..31)
+     * 
+     * @return    the shared move object between both squares
+     */
+    public static Move getMove(int src, int tar)
+    {
+        return moves[src<<5|tar];
+    }
+    
+    /**
+     * Moves are coded as integers src*32+tar of the two dark squares,
+     * so that the search does not need to create any objects.
+     *
+     * @return    the shared move object of a move code
+     */
+    public static Move getMove(int code)
+    {
+        return moves[code&0x3FF];
+    }
+    
+    public static int getCode(int src, int tar){ return src<<5|tar; }
+    public static int getSrc(int code){ return (code>>>5)&31; }
+    public static int getTar(int code){ return code&31; }
+    
+    /**
+     * A capture jumps over two rows, a normal move over one.
+     */
+    public static boolean isCap(int code)
+    {
+        int rows = (getSrc(code)>>2)-(getTar(code)>>2);
+        return rows==2||rows==-2;
+    }
+    
+    /**
+     * @return    the square of the captured piece of a capturing move code
+     */
+    public static int getCap(int code)
+    {
+        return capSquares[code&0x3FF];
+    }
+    
+    /**
+     * @return    the move code of the move, both positions have to be dark squares
+     */
+    public int getCode()
+    {
+        return getCode(this.src.getSquare(),this.tar.getSquare());
+    }
+    
+    public boolean isCap()
+    {
+        return((Math.abs(src.X-tar.X)==2)&&(Math.abs(src.Y-tar.Y)==2));
+    }
+    
+    public Position getCapPos()
+    {
+        return new Position(Math.max(src.X,tar.X)-1,Math.max(src.Y,tar.Y)-1);
+    }
+    
+    public String getString()
+    {
+        return src.getString() + " --> " + tar.getString();
+    }
+    
+    /**
+     * @return    the source and target square (0..31) separated by a dash, e.g. "21-17"
+     */
+    public String getNotation()
+    {
+        return this.src.getSquare()+"-"+this.tar.getSquare();
+    }
+    
+    /**
+     * @return    the move of a notation "source-target", null if it is no move
+     */
+    public static Move parse(String notation)
+    {
+        String[] squares = notation.split("-");
+        if(squares.length!=2)
+            return null;
+        try
+        {
+            int src = Integer.parseInt(squares[0]);
+            int tar = Integer.parseInt(squares[1]);
+            if(src<0||src>31||tar<0||tar>31)
+                return null;
+            return getMove(src,tar);
+        }
+        catch(NumberFormatException e)
+        {
+            return null;
+        }
+    }
+    
+    @Override    
+    public boolean equals(Object o)
+    {
+        if (this == o) return true;
+        if (o == null || this.getClass() != o.getClass()) return false;
+        Move move = (Move) o;
+        if (!this.src.equals(move.src)) return false;
+        if (!this.tar.equals(move.tar)) return false;
+        return true;
+    } 
+    
+    @Override    
+    public int hashCode() 
+    {        
+        return 100*this.src.hashCode()+this.tar.hashCode();
+    }   
+}
\ No newline at end of file
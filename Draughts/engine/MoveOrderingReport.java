@@ -0,0 +1,80 @@
+package engine;
+
+import java.util.*;
+
+/**
+ * The class MoveOrderingReport compares the number of explored nodes of the search
+ * with and without move ordering (transposition table move, killer moves and history)
+ * and with principal variation search on top of the move ordering.
+ *
+ * All searches run to the same fixed depth on the same positions, which are reached
+ * by random moves from the initial state with a fixed seed.
+ *
+ * Usage: java engine.MoveOrderingReport [depth] [positions]
+ *
+ * @author  Lukas Gunthermann
+ * @version 1.0
+ */
+public class MoveOrderingReport
+{
+    public static void main(String[] args)
+    {
+        int depth = args.length>0?Integer.parseInt(args[0]):8;
+        int positions = args.length>1?Integer.parseInt(args[1]):20;
+        
+        Random random = new Random(2019);
+        long totalOn = 0;
+        long totalOff = 0;
+        long totalPVS = 0;
+        System.out.println("position   unordered     ordered  reduction         pvs  reduction");
+        for(int i=0;i<positions;i++)
+        {
+            State state = getRandomState(random,8+random.nextInt(24));
+            if(state.getAvailableMoves().size()<2)
+                continue;
+            
+            long off = search(state,depth,false,false);
+            long on = search(state,depth,true,false);
+            long pvs = search(state,depth,true,true);
+            totalOff += off;
+            totalOn += on;
+            totalPVS += pvs;
+            System.out.println(String.format("%8d %11d %11d %9.1f%% %11d %9.1f%%",i,off,on,getReduction(off,on),pvs,getReduction(off,pvs)));
+        }
+        System.out.println(String.format("   total %11d %11d %9.1f%% %11d %9.1f%%",totalOff,totalOn,getReduction(totalOff,totalOn),
+            totalPVS,getReduction(totalOff,totalPVS)));
+    }
+    
+    private static double getReduction(long off, long on)
+    {
+        return off==0?0.0:100.0*(off-on)/off;
+    }
+    
+    /**
+     * @return    the number of nodes explored to find a move in the state
+     */
+    private static long search(State state, int depth, boolean ordering, boolean principalVariation)
+    {
+        Player player = new Player("AI",false,4);
+        player.setMaxDepth(depth);
+        player.setTimeBudget(Long.MAX_VALUE/2);
+        player.setMoveOrdering(ordering);
+        player.setPrincipalVariation(principalVariation);
+        player.getAImove(state.clone());
+        return player.getExploredNodes();
+    }
+    
+    /**
+     * @return    the state after the given number of random moves
+     */
+    private static State getRandomState(Random random, int moves)
+    {
+        State state = new State();
+        for(int i=0;i<moves&&!state.isOver();i++)
+        {
+            ArrayList<Move> available = state.getAvailableMoves();
+            state.move(available.get(random.nextInt(available.size())));
+        }
+        return state;
+    }
+}
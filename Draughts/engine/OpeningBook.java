@@ -0,0 +1,156 @@
+package engine;
+
+import java.io.File;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.StandardOpenOption;
+import java.util.*;
+
+/**
+ * The class OpeningBook holds moves for the first positions of a game, which are played
+ * without any search. It is created by the OpeningBookBuilder.
+ *
+ * The book is a binary file with a header and entries sorted by the hash of the position:
+ *
+ * header .. magic number (int), number of entries (int)
+ * entry  .. hash of the position (long), move code (short), weight (unsigned short)
+ *
+ * The file is memory-mapped and the moves of a position are found by a binary search,
+ * so nothing has to be read when the book is opened.
+ *
+ * @author  Lukas Gunthermann
+ * @version 1.0
+ */
+public class OpeningBook
+{
+    public static final int magic = 0x44424F4B;
+    public static final int headerSize = 8;
+    public static final int entrySize = 12;
+    
+    private static final String defaultFile = "book.bin";
+    private static OpeningBook defaultBook;
+    private static boolean defaultLoaded = false;
+    
+    private final ByteBuffer entries;
+    private final int size;
+    
+    public int getSize(){ return this.size; }
+    
+    /**
+     * The book is opened when it is needed the first time.
+     *
+     * @return    the book shared by all players, null if there is no book file
+     */
+    public static synchronized OpeningBook getDefault()
+    {
+        if(!defaultLoaded)
+        {
+            defaultLoaded = true;
+            File file = new File(defaultFile);
+            if(file.exists())
+                defaultBook = open(file);
+        }
+        return defaultBook;
+    }
+    
+    /**
+     * @return    the book of the file, null if it can't be read
+     */
+    public static OpeningBook open(File file)
+    {
+        try(FileChannel channel = FileChannel.open(file.toPath(),StandardOpenOption.READ))
+        {
+            ByteBuffer buffer = channel.map(FileChannel.MapMode.READ_ONLY,0,channel.size());
+            if(buffer.capacity()<headerSize||buffer.getInt(0)!=magic
+                ||buffer.capacity()!=headerSize+(long)entrySize*buffer.getInt(4))
+            {
+                Error.send(false,"Opening book "+file.getName()+" is not valid");
+                return null;
+            }
+            return new OpeningBook(buffer);
+        }
+        catch(IOException e)
+        {
+            Error.send(false,"Can't read opening book "+file.getName()+"\n Error: "+e);
+            return null;
+        }
+    }
+    
+    private OpeningBook(ByteBuffer buffer)
+    {
+        this.entries = buffer;
+        this.size = buffer.getInt(4);
+    }
+    
+    private long getHash(int entry){ return this.entries.getLong(headerSize+entry*entrySize); }
+    private int getMove(int entry){ return this.entries.getShort(headerSize+entry*entrySize+8); }
+    private int getWeight(int entry){ return this.entries.getShort(headerSize+entry*entrySize+10)&0xFFFF; }
+    
+    /**
+     * @return    the first entry of the hash, or of the next larger hash
+     */
+    private int find(long hash)
+    {
+        int low = 0;
+        int high = this.size;
+        while(low<high)
+        {
+            int mid = (low+high)>>>1;
+            if(this.getHash(mid)<hash)
+                low = mid+1;
+            else
+                high = mid;
+        }
+        return low;
+    }
+    
+    /**
+     * @return    the number of book moves of the state
+     */
+    public int getMoveCount(State state)
+    {
+        long hash = state.getHash();
+        int count = 0;
+        for(int entry=this.find(hash);entry<this.size&&this.getHash(entry)==hash;entry++)
+            count++;
+        return count;
+    }
+    
+    /**
+     * Pick one of the book moves of the state, the chance of a move grows with its weight.
+     * Moves which are not legal in the state are ignored.
+     *
+     * @return    a book move, null if the state is not in the book
+     */
+    public Move getMove(State state, Random random)
+    {
+        long hash = state.getHash();
+        ArrayList<Move> available = state.getAvailableMoves();
+        ArrayList<Move> moves = new ArrayList<Move>();
+        ArrayList<Integer> weights = new ArrayList<Integer>();
+        int total = 0;
+        for(int entry=this.find(hash);entry<this.size&&this.getHash(entry)==hash;entry++)
+        {
+            Move move = Move.getMove(this.getMove(entry));
+            int weight = this.getWeight(entry);
+            if(weight>0&&available.contains(move))
+            {
+                moves.add(move);
+                weights.add(weight);
+                total += weight;
+            }
+        }
+        if(moves.isEmpty())
+            return null;
+        
+        int pick = random.nextInt(total);
+        for(int i=0;i<moves.size();i++)
+        {
+            pick -= weights.get(i);
+            if(pick<0)
+                return moves.get(i);
+        }
+        return moves.get(moves.size()-1);
+    }
+}
@@ -0,0 +1,246 @@
+package engine;
+
+import java.io.*;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Files;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+import java.util.*;
+
+/**
+ * The class OpeningBookBuilder collects the moves of the first plies of many games and
+ * writes them as an opening book, see OpeningBook.
+ *
+ * The games are either played by two computer players or read from a text file with one game
+ * per line. A move is written as source and target square (0..31) separated by a dash,
+ * a line may end with the result 1-0 (black won), 0-1 (white won) or 1/2-1/2:
+ *
+ *   21-17 9-13 22-18 13-22 ... 1-0
+ *
+ * A file ending with .pdn is read as PDN instead, see PdnReader. Games which don't start
+ * from the initial position are left out.
+ *
+ * Each move gets a weight of 3 if the player who made it won the game, 2 for a draw and 1 for a loss.
+ *
+ * Usage: java engine.OpeningBookBuilder selfplay [games] [plies] [difficulty] [book]
+ *        java engine.OpeningBookBuilder import file [plies] [book]
+ *
+ * @author  Lukas Gunthermann
+ * @version 1.0
+ */
+public class OpeningBookBuilder
+{
+    /**
+     * Weights of all moves by the hash of the position and the move code
+     */
+    private final HashMap<Long,HashMap<Integer,Integer>> positions;
+    private final int plies;
+    private int games;
+    
+    private static final int maxPlies = 200;
+    
+    public int getGames(){ return this.games; }
+    public int getPositions(){ return this.positions.size(); }
+    
+    public static void main(String[] args)
+    {
+        if(args.length>=1&&args[0].equals("selfplay"))
+        {
+            int games = args.length>1?Integer.parseInt(args[1]):100;
+            int plies = args.length>2?Integer.parseInt(args[2]):12;
+            int difficulty = args.length>3?Integer.parseInt(args[3]):1;
+            File book = new File(args.length>4?args[4]:"book.bin");
+            
+            OpeningBookBuilder builder = new OpeningBookBuilder(plies);
+            for(int i=0;i<games;i++)
+            {
+                builder.playGame(difficulty);
+                System.out.println("game "+(i+1)+"/"+games+", "+builder.getPositions()+" positions");
+            }
+            builder.write(book);
+        }
+        else if(args.length>=2&&args[0].equals("import"))
+        {
+            int plies = args.length>2?Integer.parseInt(args[2]):12;
+            File book = new File(args.length>3?args[3]:"book.bin");
+            
+            OpeningBookBuilder builder = new OpeningBookBuilder(plies);
+            builder.importGames(new File(args[1]));
+            System.out.println(builder.getGames()+" games, "+builder.getPositions()+" positions");
+            builder.write(book);
+        }
+        else
+        {
+            System.out.println("Usage: java engine.OpeningBookBuilder selfplay [games] [plies] [difficulty] [book]");
+            System.out.println("       java engine.OpeningBookBuilder import file [plies] [book]");
+        }
+    }
+    
+    /**
+     * Constructor
+     *
+     * @param plies     the number of plies of each game which are added to the book
+     */
+    public OpeningBookBuilder(int plies)
+    {
+        this.positions = new HashMap<Long,HashMap<Integer,Integer>>();
+        this.plies = plies;
+        this.games = 0;
+    }
+    
+    /**
+     * Add the first plies of a game to the book.
+     *
+     * @param moves     the moves of the game from the initial state
+     * @param winner    the player who won the game, 0 for a draw or an unknown result
+     */
+    public void addGame(List<Move> moves, int winner)
+    {
+        State state = new State();
+        for(int i=0;i<moves.size()&&i<this.plies;i++)
+        {
+            Move move = moves.get(i);
+            if(!state.isValidMove(move))
+            {
+                Error.send(false,"Illegal move "+move.getString()+" in game "+(this.games+1));
+                break;
+            }
+            int weight = winner==0?2:winner==state.getTurn()?3:1;
+            this.positions.computeIfAbsent(state.getHash(),hash -> new HashMap<Integer,Integer>())
+                .merge(move.getCode(),weight,Integer::sum);
+            state.move(move);
+        }
+        this.games++;
+    }
+    
+    /**
+     * Let two computer players play a game, the first three plies are random.
+     */
+    public void playGame(int difficulty)
+    {
+        Player[] players = {new Player("Black",false,difficulty),new Player("White",false,difficulty)};
+        for(Player player : players)
+            player.setOpeningBook(null);
+        
+        Game game = new Game(players[0],players[1]);
+        game.setMaxPlies(maxPlies);
+        this.addGame(game.getMoves(),game.play());
+    }
+    
+    /**
+     * Read the games of a text file, see the description of the class.
+     */
+    public void importGames(File file)
+    {
+        if(file.getName().toLowerCase().endsWith(".pdn"))
+        {
+            this.importPdn(file);
+            return;
+        }
+        try(BufferedReader reader = new BufferedReader(new FileReader(file)))
+        {
+            String line;
+            while((line = reader.readLine())!=null)
+            {
+                line = line.trim();
+                if(line.isEmpty()||line.startsWith("#"))
+                    continue;
+                ArrayList<Move> moves = new ArrayList<Move>();
+                int winner = 0;
+                for(String token : line.split("\\s+"))
+                {
+                    if(token.equals("1-0"))
+                        winner = 1;
+                    else if(token.equals("0-1"))
+                        winner = 2;
+                    else if(!token.equals("1/2-1/2")&&!token.equals("*"))
+                    {
+                        Move move = Move.parse(token);
+                        if(move==null)
+                        {
+                            Error.send(false,"Can't read move \""+token+"\"");
+                            break;
+                        }
+                        moves.add(move);
+                    }
+                }
+                this.addGame(moves,winner);
+            }
+        }
+        catch(IOException e)
+        {
+            Error.send(false,"Can't read games from "+file.getName()+"\n Error: "+e);
+        }
+    }
+    
+    /**
+     * Read the games of a PDN file, the file is read game by game.
+     */
+    public void importPdn(File file)
+    {
+        try(PdnReader reader = new PdnReader(file))
+        {
+            PdnGame game;
+            while((game = reader.next())!=null)
+                if(game.isStartPosition())
+                    this.addGame(game.getMoves(),Math.max(0,game.getWinner()));
+        }
+        catch(IOException e)
+        {
+            Error.send(false,"Can't read games from "+file.getName()+"\n Error: "+e);
+        }
+    }
+    
+    /**
+     * Write the book sorted by hash, the moves of a position with the highest weight first.
+     * The book is written to a temporary file first, so that an open book is never changed.
+     */
+    public void write(File file)
+    {
+        ArrayList<Long> hashes = new ArrayList<Long>(this.positions.keySet());
+        Collections.sort(hashes);
+        int count = 0;
+        for(long hash : hashes)
+            count += this.positions.get(hash).size();
+        
+        ByteBuffer buffer = ByteBuffer.allocate(OpeningBook.headerSize+OpeningBook.entrySize*count);
+        buffer.putInt(OpeningBook.magic);
+        buffer.putInt(count);
+        for(long hash : hashes)
+        {
+            ArrayList<Map.Entry<Integer,Integer>> moves = new ArrayList<Map.Entry<Integer,Integer>>(this.positions.get(hash).entrySet());
+            moves.sort((a,b) -> b.getValue()-a.getValue());
+            for(Map.Entry<Integer,Integer> move : moves)
+            {
+                buffer.putLong(hash);
+                buffer.putShort((short)(int)move.getKey());
+                buffer.putShort((short)Math.min(0xFFFF,move.getValue()));
+            }
+        }
+        buffer.flip();
+        
+        File temp = new File(file.getPath()+".tmp");
+        try(FileChannel channel = FileChannel.open(temp.toPath(),StandardOpenOption.CREATE,
+            StandardOpenOption.TRUNCATE_EXISTING,StandardOpenOption.WRITE))
+        {
+            while(buffer.hasRemaining())
+                channel.write(buffer);
+        }
+        catch(IOException e)
+        {
+            Error.send(false,"Can't write opening book "+temp.getName()+"\n Error: "+e);
+            return;
+        }
+        try
+        {
+            Files.move(temp.toPath(),file.toPath(),StandardCopyOption.REPLACE_EXISTING);
+        }
+        catch(IOException e)
+        {
+            Error.send(false,"Can't rename opening book "+temp.getName()+"\n Error: "+e);
+            return;
+        }
+        System.out.println("Wrote "+count+" moves of "+hashes.size()+" positions to "+file.getName());
+    }
+}
@@ -0,0 +1,353 @@
+package engine;
+
+import java.util.*;
+
+/**
+ * The class Pdn converts positions and moves between the game and the Portable Draughts Notation.
+ *
+ * PDN numbers the dark squares from 1 to 32, starting at the back row of black. The square n of
+ * PDN is the square 32-n of the game, so that black starts on 1-12 and white on 21-32.
+ *
+ * A position is written as FEN with the player to move and the pieces of both players, kings
+ * have a K in front of the square. Ranges of squares are allowed when a FEN is read:
+ *
+ *   B:W18,24,27,28,K10,K15:B12,16,20,K22,K25,K29
+ *   B:W21-32:B1-12
+ *
+ * A move is written as source and target square separated by a dash, a capture with an x
+ * between all squares of the capturing sequence, e.g. 11-15 or 15x24x31. When a capture is
+ * read, the squares between the first and the last square may be left out, e.g. 15x31, as long
+ * as only one capturing sequence matches. The last square has to be the end of the sequence.
+ *
+ * @author  Lukas Gunthermann
+ * @version 1.0
+ */
+public class Pdn
+{
+    public static final String startFen = "B:W21,22,23,24,25,26,27,28,29,30,31,32:B1,2,3,4,5,6,7,8,9,10,11,12";
+    
+    /**
+     * The squares where the men of black (29..32) and white (1..4) are crowned
+     */
+    private static final int blackPromotion = 0x0000000F;
+    private static final int whitePromotion = 0xF0000000;
+    
+    /**
+     * @param square    the square of the game (0..31)
+     * @return    the number of the square in PDN (1..32)
+     */
+    public static int getNumber(int square)
+    {
+        return 32-square;
+    }
+    
+    /**
+     * @param number    the number of a square in PDN (1..32)
+     * @return    the square of the game (0..31)
+     */
+    public static int getSquare(int number)
+    {
+        return 32-number;
+    }
+    
+    /**
+     * @return    the FEN of the position, see the description of the class
+     */
+    public static String getFen(State state)
+    {
+        StringBuilder fen = new StringBuilder(state.getTurn()==1?"B":"W");
+        for(int player : new int[]{2,1})
+        {
+            int pieces = player==1?state.getBlack():state.getWhite();
+            fen.append(':').append(player==1?'B':'W');
+            String separator = "";
+            for(int number=1;number<=32;number++)
+            {
+                int square = getSquare(number);
+                if((pieces&1<<square)==0)
+                    continue;
+                fen.append(separator);
+                if((state.getKings()&1<<square)!=0)
+                    fen.append('K');
+                fen.append(number);
+                separator = ",";
+            }
+        }
+        return fen.toString();
+    }
+    
+    /**
+     * Read a FEN, quotes around it and a dot at its end are ignored as well as fields
+     * which don't belong to a player (e.g. a move number). A FEN with more than 12 pieces of
+     * a player or with a man on the row where it is crowned is not valid, the game can't
+     * reach it and the move generator doesn't expect it.
+     *
+     * @return    the state of the FEN, null if it is not valid
+     */
+    public static State parseFen(String fen)
+    {
+        fen = fen.trim();
+        if(fen.startsWith("\"")&&fen.endsWith("\"")&&fen.length()>1)
+            fen = fen.substring(1,fen.length()-1).trim();
+        if(fen.endsWith("."))
+            fen = fen.substring(0,fen.length()-1);
+        String[] fields = fen.split(":");
+        if(fields[0].trim().length()!=1)
+            return null;
+        char turn = Character.toUpperCase(fields[0].trim().charAt(0));
+        if(turn!='B'&&turn!='W')
+            return null;
+        int[] pieces = new int[3];
+        int kings = 0;
+        for(int i=1;i<fields.length;i++)
+        {
+            String field = fields[i].trim();
+            if(field.isEmpty())
+                continue;
+            char color = Character.toUpperCase(field.charAt(0));
+            if(color!='B'&&color!='W')
+                continue;
+            int player = color=='B'?1:2;
+            for(String item : field.substring(1).split(","))
+            {
+                item = item.trim();
+                if(item.isEmpty())
+                    continue;
+                boolean king = Character.toUpperCase(item.charAt(0))=='K';
+                if(king)
+                    item = item.substring(1);
+                String[] range = item.split("-");
+                if(range.length>2)
+                    return null;
+                int first;
+                int last;
+                try
+                {
+                    first = Integer.parseInt(range[0].trim());
+                    last = range.length==2?Integer.parseInt(range[1].trim()):first;
+                }
+                catch(NumberFormatException e)
+                {
+                    return null;
+                }
+                if(first<1||last>32||first>last)
+                    return null;
+                for(int number=first;number<=last;number++)
+                {
+                    int bit = 1<<getSquare(number);
+                    if(((pieces[1]|pieces[2])&bit)!=0)
+                        return null;
+                    pieces[player] |= bit;
+                    if(king)
+                        kings |= bit;
+                }
+            }
+        }
+        if(Integer.bitCount(pieces[1])>12||Integer.bitCount(pieces[2])>12)
+            return null;
+        if((pieces[1]&~kings&blackPromotion)!=0||(pieces[2]&~kings&whitePromotion)!=0)
+            return null;
+        return new State(pieces[1],pieces[2],kings,turn=='B'?1:2);
+    }
+    
+    /**
+     * @return    the PDN of a single move of the game, e.g. 11-15 or 15x24
+     */
+    public static String getNotation(Move move)
+    {
+        return getNumber(move.src.getSquare())+(move.isCap()?"x":"-")+getNumber(move.tar.getSquare());
+    }
+    
+    /**
+     * Read a move of PDN. A capture is expanded to the jumps of the game, every jump is a move
+     * of its own. Move strength annotations like ! or ? at the end are ignored.
+     *
+     * @param state     the state before the move, it is not changed
+     * @return    the moves of the game, null if the move is not legal in the state or the
+     *            capture matches more than one capturing sequence
+     */
+    public static List<Move> parseMove(State state, String notation)
+    {
+        int end = notation.length();
+        while(end>0&&(notation.charAt(end-1)=='!'||notation.charAt(end-1)=='?'))
+            end--;
+        notation = notation.substring(0,end);
+        boolean capture = notation.indexOf('x')>=0;
+        String[] parts = notation.split(capture?"x":"-");
+        if(parts.length<2||(!capture&&parts.length!=2))
+            return null;
+        int[] squares = new int[parts.length];
+        try
+        {
+            for(int i=0;i<parts.length;i++)
+            {
+                int number = Integer.parseInt(parts[i]);
+                if(number<1||number>32)
+                    return null;
+                squares[i] = getSquare(number);
+            }
+        }
+        catch(NumberFormatException e)
+        {
+            return null;
+        }
+        
+        ArrayList<Move> moves = new ArrayList<Move>();
+        if(!capture)
+        {
+            Move move = Move.getMove(squares[0],squares[1]);
+            if(state.isValidMove(move)&&!move.isCap())
+            {
+                moves.add(move);
+                return moves;
+            }
+        }
+        // a capture, which is also written with a dash sometimes
+        int found = findJumps(state.clone(),state.getTurn(),squares[0],squares,1,new ArrayList<Move>(),moves);
+        if(found>1)
+            Error.send(false,"Capture "+notation+" matches more than one capturing sequence");
+        return found==1?moves:null;
+    }
+    
+    /**
+     * Search the capturing sequences which visit the given squares in their order and end on the last one.
+     *
+     * @param square    the square of the capturing piece
+     * @param next      the index of the next square between the first and the last one which has to be visited
+     * @param jumps     the jumps so far
+     * @param sequence  the first matching sequence is added to it
+     * @return    the number of matching sequences, the search stops at the second one
+     */
+    private static int findJumps(State state, int player, int square, int[] squares, int next, ArrayList<Move> jumps, ArrayList<Move> sequence)
+    {
+        int last = squares.length-1;
+        if(state.getTurn()!=player)
+        {
+            if(next<last||square!=squares[last])
+                return 0;
+            if(sequence.isEmpty())
+                sequence.addAll(jumps);
+            return 1;
+        }
+        int found = 0;
+        for(Move move : state.getAvailableMoves())
+        {
+            if(!move.isCap()||move.src.getSquare()!=square)
+                continue;
+            int tar = move.tar.getSquare();
+            State child = state.clone();
+            child.move(move);
+            jumps.add(move);
+            found += findJumps(child,player,tar,squares,next<last&&squares[next]==tar?next+1:next,jumps,sequence);
+            jumps.remove(jumps.size()-1);
+            if(found>1)
+                break;
+        }
+        return found;
+    }
+    
+    /**
+     * Write the moves of the game as moves of PDN without move numbers, the jumps of a capturing
+     * sequence are joined to one move. A capturing sequence which isn't complete at the end is
+     * left out, e.g. at the end of a principal variation.
+     *
+     * @param state     the state before the first move, it is not changed
+     * @param moves     the moves of the game
+     * @return    the moves of PDN, e.g. 11-15 or 15x24x31
+     */
+    public static List<String> getNotations(State state, List<Move> moves)
+    {
+        state = state.clone();
+        ArrayList<String> notations = new ArrayList<String>();
+        for(int i=0;i<moves.size();)
+        {
+            int player = state.getTurn();
+            Move move = moves.get(i++);
+            StringBuilder text = new StringBuilder(getNotation(move));
+            state.move(move);
+            while(move.isCap()&&state.getTurn()==player&&i<moves.size())
+            {
+                move = moves.get(i++);
+                text.append('x').append(getNumber(move.tar.getSquare()));
+                state.move(move);
+            }
+            if(move.isCap()&&state.getTurn()==player&&!state.isOver())
+                break;
+            notations.add(text.toString());
+        }
+        return notations;
+    }
+    
+    /**
+     * Write the moves of the game as the movetext of PDN with move numbers, the jumps of
+     * a capturing sequence are joined to one move.
+     *
+     * @param state     the state before the first move, it is not changed
+     * @param moves     the moves of the game
+     * @return    the movetext, e.g. "1. 11-15 23-19 2. 8-11 22x15"
+     */
+    public static String getMovetext(State state, List<Move> moves)
+    {
+        state = state.clone();
+        StringBuilder text = new StringBuilder();
+        int number = 1;
+        boolean first = true;
+        for(int i=0;i<moves.size();)
+        {
+            int player = state.getTurn();
+            if(player==1||first)
+            {
+                if(!first)
+                    text.append(' ');
+                text.append(number).append(player==1?". ":"... ");
+            }
+            else
+                text.append(' ');
+            first = false;
+            
+            // a capturing sequence ends when the other player is to move
+            Move move = moves.get(i++);
+            text.append(getNotation(move));
+            state.move(move);
+            while(move.isCap()&&state.getTurn()==player&&i<moves.size())
+            {
+                move = moves.get(i++);
+                text.append('x').append(getNumber(move.tar.getSquare()));
+                state.move(move);
+            }
+            if(player==2)
+                number++;
+        }
+        return text.toString();
+    }
+    
+    /**
+     * @param winner    1 (black), 2 (white), 0 for a draw, -1 if the game is not over
+     * @return    the result of PDN, the first player is black
+     */
+    public static String getResult(int winner)
+    {
+        switch(winner)
+        {
+            case 1: return "1-0";
+            case 2: return "0-1";
+            case 0: return "1/2-1/2";
+            default: return "*";
+        }
+    }
+    
+    /**
+     * @return    the winner of a result, see getResult, -2 if it is no result
+     */
+    public static int parseResult(String result)
+    {
+        switch(result)
+        {
+            case "1-0": case "2-0": return 1;
+            case "0-1": case "0-2": return 2;
+            case "1/2-1/2": case "1-1": return 0;
+            case "*": return -1;
+            default: return -2;
+        }
+    }
+}
@@ -0,0 +1,56 @@
+package engine;
+
+/**
+ * The class PdnCheck tests the reading of FENs, every FEN of the list has to be read or
+ * rejected as expected. A FEN which is read wrongly makes the program end with exit code 1.
+ *
+ * Usage: java engine.PdnCheck
+ *
+ * @author  Lukas Gunthermann
+ * @version 1.0
+ */
+public class PdnCheck
+{
+    /**
+     * FENs with the expected result, true if they are valid
+     */
+    private static final Object[][] fens =
+    {
+        {Pdn.startFen,true},
+        {"B:W21-32:B1-12",true},
+        {"W:W18,24,27,28,K10,K15:B12,16,20,K22,K25,K29",true},
+        // 12 pieces of each player, kings on the rows where they are crowned
+        {"B:WK1,K2,K3,K4,5,6,7,8,9,10,11,12:BK29,K30,K31,K32,21,22,23,24,25,26,27,28",true},
+        // a player without pieces, the game is over
+        {"W:W:B1",true},
+        // 13 pieces of black or white
+        {"B:W21-32:B1-13",false},
+        {"W:W13-25:B1-12",false},
+        // 16 kings of white, more moves than the move generator has space for
+        {"W:WK1,K2,K3,K4,K9,K10,K11,K12,K17,K18,K19,K20,K25,K26,K27,K28:B",false},
+        // men on the row where they are crowned
+        {"B:W21-28:B1-11,29",false},
+        {"B:W21-28:B1-11,32",false},
+        {"W:W1,21-31:B5-12",false},
+        {"W:W4,21-31:B5-12",false},
+        // squares which don't exist or are taken twice
+        {"B:W21-33:B1-12",false},
+        {"B:W12-23:B1-12",false},
+    };
+    
+    public static void main(String[] args)
+    {
+        int wrong = 0;
+        for(Object[] fen : fens)
+        {
+            boolean valid = Pdn.parseFen((String)fen[0])!=null;
+            boolean ok = valid==(Boolean)fen[1];
+            System.out.println((ok?"ok    ":"WRONG ")+(valid?"valid   ":"rejected")+" "+fen[0]);
+            if(!ok)
+                wrong++;
+        }
+        System.out.println(wrong==0?"all "+fens.length+" FENs ok":wrong+" of "+fens.length+" FENs WRONG");
+        if(wrong>0)
+            System.exit(1);
+    }
+}
@@ -0,0 +1,126 @@
+package engine;
+
+import java.util.*;
+
+/**
+ * The class PdnGame is a game of a PDN file with its tags, the position it starts from and its moves.
+ * Games are read by the PdnReader and written with getString, see Pdn for the notation.
+ *
+ *   [Event "Tournament"]
+ *   [Black "Depth4"]
+ *   [White "Depth6"]
+ *   [Result "0-1"]
+ *   1. 11-15 23-19 2. 8-11 22-17 ... 0-1
+ *
+ * @author  Lukas Gunthermann
+ * @version 1.0
+ */
+public class PdnGame
+{
+    private final LinkedHashMap<String,String> tags;
+    private final State start;
+    private final List<Move> moves;
+    private final int winner;
+    
+    /**
+     * @return    the value of the tag, null if the game doesn't have it
+     */
+    public String getTag(String name){ return this.tags.get(name); }
+    public Map<String,String> getTags(){ return Collections.unmodifiableMap(this.tags); }
+    public State getStart(){ return this.start.clone(); }
+    public List<Move> getMoves(){ return Collections.unmodifiableList(this.moves); }
+    
+    /**
+     * @return    1 (black), 2 (white), 0 for a draw, -1 for an unknown result
+     */
+    public int getWinner(){ return this.winner; }
+    
+    /**
+     * Constructor
+     *
+     * @param tags      the tags of the game, the tags FEN and Result are set from the other parameters
+     * @param start     the state before the first move
+     * @param moves     the moves of the game, every jump of a capturing sequence is a move of its own
+     * @param winner    see getWinner
+     */
+    public PdnGame(Map<String,String> tags, State start, List<Move> moves, int winner)
+    {
+        this.tags = new LinkedHashMap<String,String>(tags);
+        this.start = start.clone();
+        this.moves = new ArrayList<Move>(moves);
+        this.winner = winner;
+        String fen = Pdn.getFen(start);
+        if(fen.equals(Pdn.startFen))
+            this.tags.remove("FEN");
+        else
+            this.tags.put("FEN",fen);
+        this.tags.put("Result",Pdn.getResult(winner));
+    }
+    
+    /**
+     * A game which is played by two players, it is over if it has a winner or reached the maximum plies.
+     */
+    public PdnGame(Game game)
+    {
+        this(getTags(game),new State(),game.getMoves(),game.isOver()?game.getWinner():-1);
+    }
+    
+    private static Map<String,String> getTags(Game game)
+    {
+        LinkedHashMap<String,String> tags = new LinkedHashMap<String,String>();
+        tags.put("Black",game.getPlayer(1).getName());
+        tags.put("White",game.getPlayer(2).getName());
+        tags.put("GameType","21");
+        return tags;
+    }
+    
+    /**
+     * @return    true, if the game starts from the initial state
+     */
+    public boolean isStartPosition()
+    {
+        return !this.tags.containsKey("FEN");
+    }
+    
+    /**
+     * @return    the state after all moves of the game
+     */
+    public State getState()
+    {
+        State state = this.start.clone();
+        for(Move move : this.moves)
+            state.move(move);
+        return state;
+    }
+    
+    /**
+     * @return    the game in PDN, the lines of the movetext have at most 80 characters
+     */
+    public String getString()
+    {
+        StringBuilder pdn = new StringBuilder();
+        for(Map.Entry<String,String> tag : this.tags.entrySet())
+            pdn.append('[').append(tag.getKey()).append(" \"")
+                .append(tag.getValue().replace("\\","\\\\").replace("\"","\\\"")).append("\"]\n");
+        pdn.append('\n');
+        
+        String movetext = Pdn.getMovetext(this.start,this.moves);
+        int line = 0;
+        for(String token : (movetext.isEmpty()?Pdn.getResult(this.winner):movetext+" "+Pdn.getResult(this.winner)).split(" "))
+        {
+            if(line>0&&line+1+token.length()>80)
+            {
+                pdn.append('\n');
+                line = 0;
+            }
+            else if(line>0)
+            {
+                pdn.append(' ');
+                line++;
+            }
+            pdn.append(token);
+            line += token.length();
+        }
+        return pdn.append("\n\n").toString();
+    }
+}
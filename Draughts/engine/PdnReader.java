@@ -0,0 +1,243 @@
+package engine;
+
+import java.io.*;
+import java.nio.charset.StandardCharsets;
+import java.util.*;
+import java.util.regex.Pattern;
+
+/**
+ * The class PdnReader reads the games of a PDN file one by one, so that a collection of any size
+ * can be read without keeping it in memory:
+ *
+ *   try(PdnReader reader = new PdnReader(new File("games.pdn")))
+ *   {
+ *       PdnGame game;
+ *       while((game = reader.next())!=null)
+ *           ...
+ *   }
+ *
+ * Comments ({...} and ; until the end of the line), variations in brackets, numeric annotation
+ * glyphs ($n) and lines starting with % are skipped. A game ends with its result or with the tags
+ * of the next game. The rest of a game with an illegal move is skipped, the game keeps its moves
+ * before the illegal one.
+ *
+ * @author  Lukas Gunthermann
+ * @version 1.0
+ */
+public class PdnReader implements Closeable
+{
+    private final Reader in;
+    private int games;
+    
+    /**
+     * The character which was read ahead, -2 if there is none
+     */
+    private int next;
+    private int previous;
+    
+    private static final Pattern moveNumber = Pattern.compile("^[0-9]+\\.+");
+    
+    public int getGames(){ return this.games; }
+    
+    public PdnReader(Reader in)
+    {
+        this.in = in instanceof BufferedReader?in:new BufferedReader(in);
+        this.games = 0;
+        this.next = -2;
+        this.previous = '\n';
+    }
+    
+    public PdnReader(File file) throws IOException
+    {
+        this(new BufferedReader(new InputStreamReader(new FileInputStream(file),StandardCharsets.UTF_8),1<<16));
+    }
+    
+    @Override
+    public void close() throws IOException
+    {
+        this.in.close();
+    }
+    
+    private int read() throws IOException
+    {
+        int c;
+        if(this.next!=-2)
+        {
+            c = this.next;
+            this.next = -2;
+        }
+        else
+            c = this.in.read();
+        this.previous = c;
+        return c;
+    }
+    
+    private int peek() throws IOException
+    {
+        if(this.next==-2)
+            this.next = this.in.read();
+        return this.next;
+    }
+    
+    private void skipLine() throws IOException
+    {
+        int c;
+        while((c = this.read())!=-1&&c!='\n');
+    }
+    
+    /**
+     * Skip until the closing character, brackets of variations can be nested.
+     */
+    private void skip(char open, char close) throws IOException
+    {
+        int depth = 1;
+        int c;
+        while(depth>0&&(c = this.read())!=-1)
+        {
+            if(c==close)
+                depth--;
+            else if(c==open&&open!=close)
+                depth++;
+        }
+    }
+    
+    /**
+     * @return    the content of a tag without the square brackets
+     */
+    private String readTag() throws IOException
+    {
+        StringBuilder tag = new StringBuilder();
+        boolean quoted = false;
+        int c;
+        while((c = this.read())!=-1)
+        {
+            if(quoted&&c=='\\')
+            {
+                c = this.read();
+                if(c==-1)
+                    break;
+            }
+            else if(c=='"')
+                quoted = !quoted;
+            else if(c==']'&&!quoted)
+                break;
+            tag.append((char)c);
+        }
+        return tag.toString();
+    }
+    
+    /**
+     * @return    the next word of the movetext, null at the end of the file
+     */
+    private String readToken(Map<String,String> tags, boolean movetext) throws IOException
+    {
+        while(true)
+        {
+            int c = this.peek();
+            if(c==-1)
+                return null;
+            if(Character.isWhitespace(c))
+            {
+                this.read();
+                continue;
+            }
+            if(c=='%'&&this.previous=='\n')
+            {
+                this.skipLine();
+                continue;
+            }
+            switch(c)
+            {
+                case '[':
+                    // the tags of the next game
+                    if(movetext)
+                        return "";
+                    this.read();
+                    String tag = this.readTag().trim();
+                    int space = tag.indexOf(' ');
+                    if(space>0)
+                    {
+                        String value = tag.substring(space+1).trim();
+                        if(value.length()>1&&value.startsWith("\"")&&value.endsWith("\""))
+                            value = value.substring(1,value.length()-1);
+                        tags.put(tag.substring(0,space),value);
+                    }
+                    continue;
+                case '{': this.read(); this.skip('{','}'); continue;
+                case '(': this.read(); this.skip('(',')'); continue;
+                case ';': this.skipLine(); continue;
+            }
+            StringBuilder token = new StringBuilder();
+            while((c = this.peek())!=-1&&!Character.isWhitespace(c)&&"[{(;".indexOf(c)<0)
+                token.append((char)this.read());
+            return token.toString();
+        }
+    }
+    
+    /**
+     * @return    the next game, null if there are no more games
+     */
+    public PdnGame next() throws IOException
+    {
+        LinkedHashMap<String,String> tags = new LinkedHashMap<String,String>();
+        State start = null;
+        State state = null;
+        ArrayList<Move> moves = new ArrayList<Move>();
+        boolean movetext = false;
+        boolean illegal = false;
+        int winner = -1;
+        String token;
+        while((token = this.readToken(tags,movetext))!=null)
+        {
+            if(token.isEmpty())
+                break;
+            if(state==null)
+            {
+                String fen = tags.get("FEN");
+                start = fen==null?new State():Pdn.parseFen(fen);
+                if(start==null)
+                {
+                    Error.send(false,"Can't read FEN \""+fen+"\" of game "+(this.games+1));
+                    start = new State();
+                    illegal = true;
+                }
+                state = start.clone();
+            }
+            movetext = true;
+            
+            int result = Pdn.parseResult(token);
+            if(result>=-1)
+            {
+                winner = result;
+                break;
+            }
+            // move numbers like 12. or 12... may be written in front of the move
+            token = moveNumber.matcher(token).replaceFirst("");
+            if(token.isEmpty()||token.startsWith("$")||illegal)
+                continue;
+            List<Move> move = Pdn.parseMove(state,token);
+            if(move==null)
+            {
+                Error.send(false,"Illegal move "+token+" in game "+(this.games+1));
+                illegal = true;
+                continue;
+            }
+            for(Move jump : move)
+                state.move(jump);
+            moves.addAll(move);
+        }
+        if(!movetext&&tags.isEmpty())
+            return null;
+        if(start==null)
+        {
+            String fen = tags.get("FEN");
+            start = fen==null?null:Pdn.parseFen(fen);
+            if(start==null)
+                start = new State();
+        }
+        if(winner==-1&&tags.containsKey("Result"))
+            winner = Math.max(-1,Pdn.parseResult(tags.get("Result")));
+        this.games++;
+        return new PdnGame(tags,start,moves,winner);
+    }
+}
@@ -0,0 +1,189 @@
+package engine;
+
+import java.util.*;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.RecursiveTask;
+
+/**
+ * The class Perft counts all positions which can be reached with a number of moves,
+ * to test the move generator of the state and to measure its speed.
+ *
+ * A ply is a single move of the state, so every jump of a capturing sequence counts as a ply.
+ * With -turns a whole capturing sequence counts as one ply instead, these counts can be compared
+ * to the published perft results of English draughts:
+ *
+ * depth     1    2     3      4      5       6        7        8
+ * leaves    7   49   302   1469   7361   36768   179740   845931
+ *
+ * Usage: java engine.Perft [depth] [-divide] [-turns] [-threads n] [-positions]
+ *
+ * -divide      print the count of each root move
+ * -threads n   split the root moves over n threads
+ * -positions   count the test positions as well as the initial state
+ *
+ * @author  Lukas Gunthermann
+ * @version 1.0
+ */
+public class Perft
+{
+    private final State state;
+    private final boolean turns;
+    private int[][] moves;
+    
+    /**
+     * Results of the initial state with whole turns, see the description of the class
+     */
+    private static final long[] initialTurns = {1,7,49,302,1469,7361,36768,179740,845931,3963680,18391564};
+    
+    /**
+     * Test positions with kings, capturing sequences and promotions as {black, white, kings, turn}
+     */
+    private static final int[][] testPositions =
+    {
+        {0x00000001|0x00100000,0x00000100|0x00004000|0x00400000,0x00000001,1},
+        {0x0000C000|0x01000000,0x00000660,0x00000000,1},
+        {0x10000000|0x00220000,0x00000060|0x00004400,0x10000040,2},
+        {0x00003000|0x03000000,0x00000011|0x00880000,0x03000011,1},
+    };
+    
+    public static void main(String[] args)
+    {
+        int depth = 7;
+        int threads = 1;
+        boolean divide = false;
+        boolean turns = false;
+        boolean positions = false;
+        for(int i=0;i<args.length;i++)
+        {
+            switch(args[i])
+            {
+                case "-divide": divide = true; break;
+                case "-turns": turns = true; break;
+                case "-positions": positions = true; break;
+                case "-threads": threads = Integer.parseInt(args[++i]); break;
+                default: depth = Integer.parseInt(args[i]);
+            }
+        }
+        
+        ArrayList<State> states = new ArrayList<State>();
+        states.add(new State());
+        if(positions)
+            for(int[] position : testPositions)
+                states.add(new State(position[0],position[1],position[2],position[3]));
+        
+        for(State state : states)
+        {
+            System.out.println(state.getBoardAsString());
+            long startTime = System.nanoTime();
+            long leaves = run(state,depth,turns,threads,divide);
+            long time = System.nanoTime()-startTime;
+            System.out.println(String.format("depth %d: %d leaves in %.3fs, %.0f leaves/s",
+                depth,leaves,time/1e9,leaves/(time/1e9)));
+            if(turns&&state.getHash()==new State().getHash()&&depth<initialTurns.length)
+                System.out.println(leaves==initialTurns[depth]?"ok":"WRONG, expected "+initialTurns[depth]);
+        }
+    }
+    
+    /**
+     * Count the leaves of each root move, the root moves are split over the threads.
+     *
+     * @return    the number of leaves
+     */
+    public static long run(State root, int depth, boolean turns, int threads, boolean divide)
+    {
+        if(depth==0)
+            return 1;
+        int[] rootMoves = new int[State.maxMoves];
+        int count = root.generateMoves(rootMoves);
+        
+        ArrayList<RecursiveTask<Long>> tasks = new ArrayList<RecursiveTask<Long>>();
+        for(int i=0;i<count;i++)
+        {
+            int move = rootMoves[i];
+            tasks.add(new RecursiveTask<Long>()
+            {
+                @Override
+                protected Long compute()
+                {
+                    State state = root.clone();
+                    state.doMove(move);
+                    boolean sequence = turns&&state.getLastHit()>=0;
+                    return new Perft(state,turns).count(sequence?depth:depth-1);
+                }
+            });
+        }
+        
+        ForkJoinPool pool = new ForkJoinPool(Math.max(1,threads));
+        pool.invoke(new RecursiveTask<Long>()
+        {
+            @Override
+            protected Long compute()
+            {
+                invokeAll(tasks);
+                return 0L;
+            }
+        });
+        pool.shutdown();
+        
+        long leaves = 0;
+        for(int i=0;i<count;i++)
+        {
+            long result = tasks.get(i).join();
+            if(divide)
+                System.out.println(Move.getMove(rootMoves[i]).getString()+": "+result);
+            leaves += result;
+        }
+        return leaves;
+    }
+    
+    /**
+     * Constructor
+     *
+     * @param state     the root of the count, it is copied
+     * @param turns     whether a capturing sequence counts as one ply
+     */
+    public Perft(State state, boolean turns)
+    {
+        this.state = state.clone();
+        this.turns = turns;
+        this.moves = new int[0][];
+    }
+    
+    /**
+     * @return    the number of positions reached after the given number of plies
+     */
+    public long count(int depth)
+    {
+        return this.count(depth,0);
+    }
+    
+    private long count(int depth, int ply)
+    {
+        if(depth==0)
+            return 1;
+        if(ply>=this.moves.length)
+        {
+            this.moves = Arrays.copyOf(this.moves,ply+8);
+            for(int i=ply;i<this.moves.length;i++)
+                this.moves[i] = new int[State.maxMoves];
+        }
+        int[] moves = this.moves[ply];
+        int count = this.state.generateMoves(moves);
+        
+        // the moves of the last ply don't have to be made
+        if(depth==1&&!this.turns)
+            return count;
+        
+        long leaves = 0;
+        for(int i=0;i<count;i++)
+        {
+            this.state.doMove(moves[i]);
+            if(this.turns&&this.state.getLastHit()>=0)
+                leaves += this.count(depth,ply+1);
+            else
+                leaves += this.count(depth-1,ply+1);
+            this.state.undoMove();
+        }
+        return leaves;
+    }
+}
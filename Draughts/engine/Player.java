@@ -0,0 +1,854 @@
+package engine;
+
+import java.util.*;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.ForkJoinTask;
+import java.util.concurrent.RecursiveAction;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.Consumer;
+
+/**
+ * A player can be a human or computer player. 
+ * Computer opponents have four different difficulty settings:
+ * 
+ * 1 - Easy     (0.1s per move, at most depth 3)
+ * 2 - Medium   (0.5s per move, at most depth 6)
+ * 3 - Hard     (2s per move)
+ * 4 - Brutal   (8s per move)
+ *
+ * The search deepens iteratively until the time of the move is used up. Each iteration starts
+ * with an aspiration window around the previous score and scouts all but the first move of
+ * a node with a null window (principal variation search). At the horizon the search goes on
+ * as long as captures are pending, so that no position is evaluated in the middle of an exchange.
+ * Positions of the opening book (see OpeningBookBuilder) are played without a search.
+ * Endgames which are part of the tablebase (see TablebaseGenerator) are not searched at all.
+ * With more than one thread the search runs in one of two parallel modes:
+ *
+ * rootSplit .. the root moves are searched in parallel, the result is the same as with one thread
+ * lazySMP   .. all threads search the whole tree with different depths and move orders and
+ *              only share the transposition table
+ *
+ * @author  Lukas Gunthermann
+ * @version 1.0
+ */
+public class Player
+{
+    private String name;
+    private boolean human;
+    private volatile boolean active;
+    private int difficulty;
+    private long exploredNodes;
+    private long quiescenceNodes;
+    private int threshold;
+    
+    /**
+     * Limits of the search, 0 for the default of the difficulty
+     */
+    private long timeBudget;
+    private long nodeBudget;
+    private int maxDepth;
+    
+    /**
+     * State of the running search, it is shared by all search threads
+     */
+    private volatile int depthReached;
+    private int score;
+    private ArrayList<Move> bestMoves;
+    private State root;
+    private long iterationNodes;
+    private long startTime;
+    private volatile boolean aborted;
+    private volatile boolean stopped;
+    private final AtomicLong nodeCounter;
+    private final AtomicLong quiescenceCounter;
+    private SearchStats searchStats;
+    
+    /**
+     * Threads for the parallel search, the pool is created when it is needed the first time
+     */
+    private int threads;
+    private int parallelMode;
+    private boolean moveOrdering;
+    private boolean principalVariation;
+    private boolean quiescence;
+    private ForkJoinPool pool;
+    
+    public static final int rootSplit = 1;
+    public static final int lazySMP = 2;
+    
+    /**
+     * Results of searched positions, shared by all moves of the player
+     */
+    private TranspositionTable table;
+    private int tableSize;
+    
+    /**
+     * Evaluations of positions, shared by all moves of the player
+     */
+    private EvaluationCache evaluationCache;
+    private int cacheSize;
+    
+    /**
+     * Solved endgames, the search stops at their positions
+     */
+    private Tablebase tablebase;
+    
+    /**
+     * Moves for the opening, which are played without a search
+     */
+    private OpeningBook openingBook;
+    private boolean bookMove;
+    private boolean randomOpening;
+    
+    /**
+     * Called after every completed iteration of the search
+     */
+    private Consumer<Player> listener;
+    
+    public String getName(){ return name; }
+    public boolean isHuman(){ return human; }
+    public boolean isAI(){ return !human; }
+    public boolean isActive(){ return active; }
+    public void deactivate(){ active = false; }
+    public int getDifficulty(){ return difficulty; }
+    public long getExploredNodes(){ return exploredNodes; }
+    public long getQuiescenceNodes(){ return quiescenceNodes; }
+    public int getTableSize(){ return tableSize; }
+    public int getCacheSize(){ return cacheSize; }
+    public Tablebase getTablebase(){ return tablebase; }
+    public OpeningBook getOpeningBook(){ return openingBook; }
+    public boolean isBookMove(){ return bookMove; }
+    public int getDepthReached(){ return depthReached; }
+    public int getScore(){ return score; }
+    public int getThreads(){ return threads; }
+    public int getParallelMode(){ return parallelMode; }
+    public boolean isMoveOrdering(){ return moveOrdering; }
+    public boolean isPrincipalVariation(){ return principalVariation; }
+    public boolean isQuiescence(){ return quiescence; }
+    public boolean isRandomOpening(){ return randomOpening; }
+    public SearchStats getSearchStats(){ return searchStats; }
+    
+    /**
+     * The node counter of the search is only updated every 1024 nodes of each thread.
+     *
+     * @return    the nodes explored so far by the current or last search
+     */
+    public long getSearchNodes(){ return Math.max(nodeCounter.get(),iterationNodes); }
+    
+    public void setTimeBudget(long milliseconds){ this.timeBudget = Math.max(0,milliseconds); }
+    public void setNodeBudget(long nodes){ this.nodeBudget = Math.max(0,nodes); }
+    public void setMaxDepth(int depth){ this.maxDepth = Math.max(0,depth); }
+    public void setMoveOrdering(boolean on){ this.moveOrdering = on; }
+    public void setPrincipalVariation(boolean on){ this.principalVariation = on; }
+    public void setQuiescence(boolean on){ this.quiescence = on; }
+    public void setTablebase(Tablebase tablebase){ this.tablebase = tablebase; }
+    public void setOpeningBook(OpeningBook book){ this.openingBook = book; }
+    public void setRandomOpening(boolean on){ this.randomOpening = on; }
+    public void setListener(Consumer<Player> listener){ this.listener = listener; }
+    
+    private final static int thresholdRange = 15;
+    private final static int defaultTableSize = 16;
+    private final static int defaultCacheSize = 4;
+    private final static int maxSearchDepth = 64;
+    private final static int aspirationWindow = 8;
+    private final static int aspirationLimit = 512;
+    private int getUpperThreshold(){ return this.threshold + thresholdRange; }
+    private int getLowerThreshold(){ return this.threshold - thresholdRange; }
+    
+    boolean isAborted(){ return this.aborted; }
+    boolean isOutsideThreshold(int val){ return (val<this.getLowerThreshold())||(val>this.getUpperThreshold()); }
+    
+    /**
+     * Constructor for objects of class Player
+     */
+    public Player(String name, boolean human, int difficulty)
+    {
+        this.name = name;
+        this.human = human;
+        this.active = true;
+        this.difficulty = difficulty;
+        this.exploredNodes = 0;
+        this.quiescenceNodes = 0;
+        this.threshold = 0;
+        this.nodeCounter = new AtomicLong();
+        this.quiescenceCounter = new AtomicLong();
+        this.searchStats = new SearchStats();
+        this.threads = 1;
+        this.parallelMode = rootSplit;
+        this.moveOrdering = true;
+        this.principalVariation = true;
+        this.quiescence = true;
+        this.pool = null;
+        this.table = null;
+        this.tableSize = defaultTableSize;
+        this.evaluationCache = null;
+        this.cacheSize = defaultCacheSize;
+        this.tablebase = human?null:Tablebase.getDefault();
+        this.openingBook = human?null:OpeningBook.getDefault();
+        this.bookMove = false;
+        this.randomOpening = true;
+        this.listener = null;
+        this.timeBudget = 0;
+        this.nodeBudget = 0;
+        this.maxDepth = 0;
+        
+        this.verifyDifficulty();
+    }
+    
+    public Player(String name, boolean human)
+    {
+        this(name,human,0);
+    }
+    
+    public Player(Player player)
+    {
+        this(player.getName(),player.isHuman(),player.getDifficulty());
+        this.tableSize = player.tableSize;
+        this.cacheSize = player.cacheSize;
+        this.tablebase = player.tablebase;
+        this.openingBook = player.openingBook;
+        this.randomOpening = player.randomOpening;
+        this.timeBudget = player.timeBudget;
+        this.nodeBudget = player.nodeBudget;
+        this.maxDepth = player.maxDepth;
+        this.threads = player.threads;
+        this.parallelMode = player.parallelMode;
+        this.moveOrdering = player.moveOrdering;
+        this.principalVariation = player.principalVariation;
+        this.quiescence = player.quiescence;
+    }
+    
+    /**
+     * @param threads   the number of threads of the search
+     */
+    public void setThreads(int threads)
+    {
+        this.threads = Math.max(1,threads);
+        if(this.pool!=null)
+            this.pool.shutdown();
+        this.pool = null;
+    }
+    
+    /**
+     * @param mode  rootSplit or lazySMP
+     */
+    public void setParallelMode(int mode)
+    {
+        if(mode==rootSplit||mode==lazySMP)
+            this.parallelMode = mode;
+        else
+            Error.send(false,"Unknown parallel mode "+mode);
+    }
+    
+    /**
+     * Free the threads and tables of the search, they are created again by the next search.
+     */
+    public void release()
+    {
+        if(this.pool!=null)
+            this.pool.shutdown();
+        this.pool = null;
+        this.table = null;
+        this.evaluationCache = null;
+    }
+    
+    private ForkJoinPool getPool()
+    {
+        if(this.pool==null)
+            this.pool = new ForkJoinPool(this.threads);
+        return this.pool;
+    }
+    
+    /**
+     * @param megabytes     the size of the transposition table in MB
+     */
+    public void setTableSize(int megabytes)
+    {
+        this.tableSize = Math.max(1,megabytes);
+        this.table = null;
+    }
+    
+    /**
+     * The table is only created for computer players when it is needed the first time.
+     *
+     * @return    the transposition table of the player
+     */
+    public TranspositionTable getTable()
+    {
+        if(this.table==null)
+            this.table = new TranspositionTable(this.tableSize);
+        return this.table;
+    }
+    
+    /**
+     * Use the given table instead of creating one, e.g. to reuse the table of an earlier game.
+     */
+    public void setTable(TranspositionTable table)
+    {
+        this.table = table;
+    }
+    
+    /**
+     * @param megabytes     the size of the evaluation cache in MB
+     */
+    public void setCacheSize(int megabytes)
+    {
+        this.cacheSize = Math.max(1,megabytes);
+        this.evaluationCache = null;
+    }
+    
+    /**
+     * The cache is only created for computer players when it is needed the first time.
+     *
+     * @return    the evaluation cache of the player
+     */
+    public EvaluationCache getEvaluationCache()
+    {
+        if(this.evaluationCache==null)
+            this.evaluationCache = new EvaluationCache(this.cacheSize);
+        return this.evaluationCache;
+    }
+    
+    /**
+     * Use the given cache instead of creating one, e.g. to reuse the cache of an earlier game.
+     */
+    public void setEvaluationCache(EvaluationCache cache)
+    {
+        this.evaluationCache = cache;
+    }
+    
+    /**
+     * @return    the time in ms the search may use for a move
+     */
+    private long getTimeBudget()
+    {
+        if(this.timeBudget>0)
+            return this.timeBudget;
+        switch(this.difficulty)
+        {
+            case 1: return 100;
+            case 2: return 500;
+            case 3: return 2000;
+            case 4: return 8000;
+            default: return 0;
+        }
+    }
+    
+    /**
+     * @return    the deepest iteration of the search
+     */
+    private int getMaxDepth()
+    {
+        if(this.maxDepth>0)
+            return this.maxDepth;
+        switch(this.difficulty)
+        {
+            case 1: return 3;
+            case 2: return 6;
+            default: return maxSearchDepth;
+        }
+    }
+    
+    /**
+     * @return    the time in ms since the current or last search started
+     */
+    public long getElapsedTime()
+    {
+        return (System.nanoTime()-this.startTime)/1000000;
+    }
+    
+    /**
+     * Count the explored nodes of a search thread and stop the search if the budget is used up.
+     * The search isn't stopped before one iteration is completed, so that there is a move to play.
+     * Helper threads of lazy SMP start deeper, so the depth of the calling thread isn't enough.
+     *
+     * @param nodes     the nodes explored since the last check
+     * @param depth     the depth of the current iteration of the search thread
+     */
+    void checkBudget(long nodes, int depth)
+    {
+        long total = this.nodeCounter.addAndGet(nodes);
+        if(depth<=1||this.depthReached==0)
+            return;
+        if(!this.active||this.stopped||(this.nodeBudget>0&&total>=this.nodeBudget)||this.getElapsedTime()>=this.getTimeBudget())
+            this.aborted = true;
+    }
+    
+    /**
+     * Count the quiescence nodes of a finished search thread.
+     *
+     * @return    all nodes explored by the search thread
+     */
+    private long countNodes(Search search)
+    {
+        this.quiescenceCounter.addAndGet(search.getQuiescenceNodes());
+        this.searchStats.add(search);
+        return search.getNodes();
+    }
+    
+    /**
+     * Compares two values. For player 1 a higher value is better, while it is a lower value for player 2
+     * 
+     * @return    true, if val1 is better than val2, otherwise false
+     */
+    static boolean isBetter(int player, int val1, int val2)
+    {
+        if(player==1)
+            return val1>val2;
+        else
+            return val1<val2;  
+    }
+    
+    /**
+     * A root move only has to be searched exactly if it is at least as good as the best move so far,
+     * so the window excludes all worse results but still finds equally good moves.
+     *
+     * @return    {alpha, beta} for the next root move
+     */
+    private static int[] getRootWindow(int player, int bestResult)
+    {
+        if(player==1)
+            return new int[]{bestResult==-Integer.MAX_VALUE?bestResult:bestResult-1,Integer.MAX_VALUE};
+        else
+            return new int[]{-Integer.MAX_VALUE,bestResult==Integer.MAX_VALUE?bestResult:bestResult+1};
+    }
+    
+    /**
+     * The first root move was the best of the previous iteration, so it is searched with an aspiration
+     * window around the previous score. The window grows until the result lies inside of it.
+     *
+     * @return    the exact result of the move
+     */
+    private int searchFirstMove(Search search, int move)
+    {
+        int previous = this.score;
+        if(!this.principalVariation||this.depthReached==0||Math.abs(previous)>Search.mateBound)
+            return search.searchMove(move,-Integer.MAX_VALUE,Integer.MAX_VALUE);
+        
+        for(int window=aspirationWindow;window<=aspirationLimit;window*=4)
+        {
+            int alpha = previous-window;
+            int beta = previous+window;
+            int result = search.searchMove(move,alpha,beta);
+            if(this.aborted||(result>alpha&&result<beta))
+                return result;
+        }
+        return search.searchMove(move,-Integer.MAX_VALUE,Integer.MAX_VALUE);
+    }
+    
+    /**
+     * With principal variation search a root move is first scouted with a null window,
+     * which only shows whether it is at least as good as the best move so far.
+     *
+     * @return    the result of the move, exact if it is at least as good as the best result
+     */
+    private int searchRootMove(Search search, int player, int move, int bestResult)
+    {
+        int[] window = getRootWindow(player,bestResult);
+        if(this.principalVariation&&Math.abs(bestResult)!=Integer.MAX_VALUE)
+        {
+            int result;
+            if(player==1)
+                result = search.searchMove(move,bestResult-1,bestResult);
+            else
+                result = search.searchMove(move,bestResult,bestResult+1);
+            if(this.aborted||isBetter(player,bestResult,result))
+                return result;
+        }
+        return search.searchMove(move,window[0],window[1]);
+    }
+    
+    /**
+     * Search all root moves one after another.
+     *
+     * @param rootMoves     the move codes of the root
+     * @param results       the result of each root move
+     */
+    private void searchRoot(Search search, int[] rootMoves, int[] results)
+    {
+        int player = search.getState().getTurn();
+        int bestResult = player==1?-Integer.MAX_VALUE:Integer.MAX_VALUE;
+        
+        for(int i=0;i<rootMoves.length;i++)
+        {
+            int result;
+            if(i==0)
+                result = this.searchFirstMove(search,rootMoves[i]);
+            else
+                result = this.searchRootMove(search,player,rootMoves[i],bestResult);
+            if(this.aborted)
+                return;
+            results[i] = result;
+            if(isBetter(player,result,bestResult))
+                bestResult = result;
+        }
+    }
+    
+    /**
+     * Search the first root move and then all others in parallel.
+     * The best result so far is shared, so that later moves are searched with a narrower window.
+     *
+     * @param rootMoves     the move codes of the root
+     * @param results       the result of each root move
+     *
+     * @return    the number of explored nodes
+     */
+    private long searchRootParallel(State root, int depth, int[] rootMoves, int[] results)
+    {
+        int player = root.getTurn();
+        Search first = new Search(this,root);
+        first.setSearchDepth(depth);
+        results[0] = this.searchFirstMove(first,rootMoves[0]);
+        if(this.aborted)
+            return this.countNodes(first);
+        
+        AtomicInteger bestResult = new AtomicInteger(results[0]);
+        AtomicLong nodes = new AtomicLong(this.countNodes(first));
+        ArrayList<RecursiveAction> tasks = new ArrayList<RecursiveAction>();
+        for(int i=1;i<rootMoves.length;i++)
+        {
+            final int index = i;
+            tasks.add(new RecursiveAction()
+            {
+                @Override
+                protected void compute()
+                {
+                    Search search = new Search(Player.this,root);
+                    search.setSearchDepth(depth);
+                    int result = Player.this.searchRootMove(search,player,rootMoves[index],bestResult.get());
+                    nodes.addAndGet(Player.this.countNodes(search));
+                    if(Player.this.aborted)
+                        return;
+                    results[index] = result;
+                    bestResult.accumulateAndGet(result,player==1?Math::max:Math::min);
+                }
+            });
+        }
+        this.getPool().invoke(new RecursiveAction()
+        {
+            @Override
+            protected void compute()
+            {
+                invokeAll(tasks);
+            }
+        });
+        return nodes.get();
+    }
+    
+    /**
+     * @return    the root moves with the best result
+     */
+    private static ArrayList<Move> getBestMoves(int player, int[] rootMoves, int[] results)
+    {
+        int bestResult = player==1?-Integer.MAX_VALUE:Integer.MAX_VALUE;
+        ArrayList<Move> moves = new ArrayList<Move>();
+        for(int i=0;i<rootMoves.length;i++)
+        {
+            if(results[i]==bestResult)
+            {
+                moves.add(Move.getMove(rootMoves[i]));
+            }
+            else if(isBetter(player,results[i],bestResult))
+            {
+                moves.clear();
+                moves.add(Move.getMove(rootMoves[i]));
+                bestResult = results[i];
+            }
+        }
+        return moves;
+    }
+    
+    /**
+     * Sort the root moves by their results, the best first. Equal moves keep their order.
+     */
+    private static void sortMoves(int player, int[] rootMoves, int[] results)
+    {
+        for(int i=1;i<rootMoves.length;i++)
+        {
+            int move = rootMoves[i];
+            int result = results[i];
+            int j = i;
+            for(;j>0&&isBetter(player,result,results[j-1]);j--)
+            {
+                rootMoves[j] = rootMoves[j-1];
+                results[j] = results[j-1];
+            }
+            rootMoves[j] = move;
+            results[j] = result;
+        }
+    }
+    
+    /**
+     * Keep the result of the deepest completed iteration of all search threads.
+     *
+     * @param nodes     the nodes explored by the reporting thread and the threads it waited for
+     */
+    private synchronized void report(int depth, ArrayList<Move> moves, int score, long nodes)
+    {
+        if(depth>this.depthReached)
+        {
+            this.depthReached = depth;
+            this.iterationNodes = nodes;
+            this.bestMoves = moves;
+            this.score = score;
+            if(this.listener!=null)
+                this.listener.accept(this);
+        }
+    }
+    
+    /**
+     * End the running search at the next check of the budget, like an exhausted budget. The running
+     * iteration is dropped and the result of the last completed iteration is used, the first iteration
+     * is always completed. A search which starts after the call is not affected.
+     */
+    public void stop()
+    {
+        this.stopped = true;
+    }
+    
+    /**
+     * The principal variation starts with the best move of the last completed iteration
+     * and follows the best moves stored in the transposition table.
+     *
+     * @return    the moves which the search expects for both players
+     */
+    public synchronized ArrayList<Move> getPrincipalVariation()
+    {
+        ArrayList<Move> moves = new ArrayList<Move>();
+        if(this.root==null||this.bestMoves==null||this.bestMoves.isEmpty())
+            return moves;
+        State state = this.root.clone();
+        int[] codes = new int[State.maxMoves];
+        HashSet<Long> positions = new HashSet<Long>();
+        int move = this.bestMoves.get(0).getCode();
+        while(moves.size()<this.depthReached&&positions.add(state.getHash()))
+        {
+            int count = state.generateMoves(codes);
+            boolean legal = false;
+            for(int i=0;i<count;i++)
+                legal |= codes[i]==move;
+            if(!legal)
+                break;
+            state.doMove(move);
+            moves.add(Move.getMove(move));
+            long data = this.getTable().peek(state.getHash());
+            if(data==0)
+                break;
+            move = TranspositionTable.getMove(data);
+        }
+        return moves;
+    }
+    
+    /**
+     * Deepen the search until the budget is used up, only completed iterations count.
+     *
+     * @param search        the search of this thread
+     * @param rootMoves     the move codes of the root, they are sorted by the results
+     * @param firstDepth    the depth of the first iteration
+     * @param main          whether this is the main thread, which decides when the search ends
+     *
+     * @return    the number of nodes explored by other threads of a root split search
+     */
+    private long iterate(Search search, int[] rootMoves, int firstDepth, boolean main)
+    {
+        int player = search.getState().getTurn();
+        int[] results = new int[rootMoves.length];
+        long nodes = 0;
+        for(int depth=firstDepth;depth<=this.getMaxDepth();depth++)
+        {
+            search.setSearchDepth(depth);
+            IterationEvent event = new IterationEvent();
+            event.begin();
+            long startNodes = search.getNodes()+nodes;
+            if(main&&this.threads>1&&this.parallelMode==rootSplit)
+                nodes += this.searchRootParallel(search.getState(),depth,rootMoves,results);
+            else
+                this.searchRoot(search,rootMoves,results);
+            event.end();
+            if(event.shouldCommit())
+            {
+                event.depth = depth;
+                event.nodes = search.getNodes()+nodes-startNodes;
+                event.score = getBest(player,results);
+                event.main = main;
+                event.completed = !this.aborted;
+                event.commit();
+            }
+            if(this.aborted)
+                break;
+            this.report(depth,getBestMoves(player,rootMoves,results),getBest(player,results),search.getNodes()+nodes);
+            sortMoves(player,rootMoves,results);
+            
+            // the next iteration takes longer than all previous ones together
+            if(main&&2*this.getElapsedTime()>=this.getTimeBudget())
+                break;
+        }
+        return nodes;
+    }
+    
+    /**
+     * Run helper threads next to the main search. Every second helper starts one iteration
+     * deeper and each helper searches the root moves in a rotated order.
+     *
+     * @return    the number of explored nodes
+     */
+    private long searchLazySMP(State root, int[] rootMoves)
+    {
+        ArrayList<Search> helpers = new ArrayList<Search>();
+        ArrayList<ForkJoinTask<?>> tasks = new ArrayList<ForkJoinTask<?>>();
+        for(int i=1;i<this.threads;i++)
+        {
+            Search helper = new Search(this,root);
+            helper.setShared(true);
+            int[] moves = new int[rootMoves.length];
+            for(int j=0;j<moves.length;j++)
+                moves[j] = rootMoves[(j+i)%moves.length];
+            int firstDepth = 1+i%2;
+            helpers.add(helper);
+            tasks.add(this.getPool().submit(() -> { this.iterate(helper,moves,firstDepth,false); }));
+        }
+        
+        Search main = new Search(this,root);
+        main.setShared(true);
+        this.iterate(main,rootMoves,1,true);
+        
+        // stop the helpers when the main thread is done
+        this.aborted = true;
+        long nodes = this.countNodes(main);
+        for(int i=0;i<tasks.size();i++)
+        {
+            tasks.get(i).join();
+            nodes += this.countNodes(helpers.get(i));
+        }
+        return nodes;
+    }
+    
+    /**
+     * @return    the best of all results
+     */
+    private static int getBest(int player, int[] results)
+    {
+        int bestResult = results[0];
+        for(int result : results)
+            if(isBetter(player,result,bestResult))
+                bestResult = result;
+        return bestResult;
+    }
+    
+    public Move getAImove(State state)
+    {
+        ArrayList<Move> availableMoves = state.getAvailableMoves();
+        this.exploredNodes = 1;
+        this.quiescenceNodes = 0;
+        this.depthReached = 0;
+        this.bookMove = false;
+        this.searchStats = new SearchStats();
+        
+        if(availableMoves==null)
+        {
+            Error.send(true,"No available moves found.");
+            return null;
+        }
+        
+        // Only one move possible 
+        if(availableMoves.size()==1)
+        {
+            return availableMoves.get(0);
+        }
+        
+        // Known positions of the opening are played from the book
+        if(this.openingBook!=null)
+        {
+            Move move = this.openingBook.getMove(state,new Random());
+            if(move!=null)
+            {
+                this.bookMove = true;
+                return move;
+            }
+        }
+        
+        // The first three moves can be played randomly
+        if(this.randomOpening&&state.getMoveNo()<=3)
+        {
+            return availableMoves.get(new Random().nextInt(availableMoves.size()));
+        }
+        
+        SearchEvent event = new SearchEvent();
+        event.begin();
+        this.threshold = this.getEvaluationCache().evaluate(state);
+        this.startTime = System.nanoTime();
+        this.aborted = false;
+        this.nodeCounter.set(0);
+        this.quiescenceCounter.set(0);
+        this.bestMoves = new ArrayList<Move>();
+        this.stopped = false;
+        this.iterationNodes = 0;
+        this.getTable().newSearch();
+        long tableHits = this.getTable().getHits();
+        long tableMisses = this.getTable().getMisses();
+        long cacheHits = this.getEvaluationCache().getHits();
+        long cacheMisses = this.getEvaluationCache().getMisses();
+        State root = state.clone();
+        this.root = root;
+        
+        int[] rootMoves = new int[availableMoves.size()];
+        for(int i=0;i<rootMoves.length;i++)
+            rootMoves[i] = availableMoves.get(i).getCode();
+        
+        if(this.threads>1&&this.parallelMode==lazySMP)
+        {
+            this.exploredNodes += this.searchLazySMP(root,rootMoves);
+        }
+        else
+        {
+            Search search = new Search(this,root);
+            this.exploredNodes += this.iterate(search,rootMoves,1,true);
+            this.exploredNodes += this.countNodes(search);
+        }
+        this.quiescenceNodes = this.quiescenceCounter.get();
+        tableHits = this.getTable().getHits()-tableHits;
+        cacheHits = this.getEvaluationCache().getHits()-cacheHits;
+        this.searchStats.finish(this.depthReached,System.nanoTime()-this.startTime,
+            tableHits,tableHits+this.getTable().getMisses()-tableMisses,
+            cacheHits,cacheHits+this.getEvaluationCache().getMisses()-cacheMisses);
+        SearchMonitor.record(this.searchStats);
+        event.end();
+        if(event.shouldCommit())
+        {
+            event.player = this.name;
+            event.difficulty = this.difficulty;
+            event.threads = this.threads;
+            event.depth = this.depthReached;
+            event.nodes = this.exploredNodes;
+            event.quiescenceNodes = this.quiescenceNodes;
+            event.score = this.score;
+            event.commit();
+        }
+        ArrayList<Move> moves = this.bestMoves;
+        
+        // play the first move if no iteration was completed, otherwise randomely pick one of the highest ranked moves
+        if(moves.isEmpty())
+        {
+            Error.send(false,"No completed iteration for player "+this.getName()+", the first move is played");
+            return availableMoves.get(0);
+        }
+        else
+        {
+            return moves.get(new Random().nextInt(moves.size()));
+        }
+    }
+    
+    /**
+     * Ensures that the difficulty has a valid value.
+     */
+    private void verifyDifficulty()
+    {
+        if(this.isHuman())
+            difficulty=0;
+        else if(difficulty<1)
+            difficulty=1;
+        else if(difficulty>4)
+            difficulty=4;
+    }
+}
@@ -1,3 +1,5 @@
+package engine;
+
 public class Position
 {
     public final int X;
@@ -6,12 +8,52 @@ public class Position
     public int getX(){ return X; }
     public int getY(){ return Y; }
     
+    /**
+     * The 32 dark squares of the board, numbered row by row from the top left.
+     */
+    private static final Position[] squares = new Position[32];
+    static
+    {
+        for(int square=0;square<32;square++)
+            squares[square] = new Position(2*(square%4)+((square/4)%2^1),square/4);
+    }
+    
     public Position(int X, int Y)
     {
         this.X = X;
         this.Y = Y;
     }
     
+    /**
+     * @param square    the index of a dark square (0..31)
+     * 
+     * @return    the shared position object of the square
+     */
+    public static Position getPosition(int square)
+    {
+        return squares[square];
+    }
+    
+    /**
+     * Only the dark squares can be occupied by a piece.
+     * 
+     * @return    true, if the position is a valid dark square, otherwise false
+     */
+    public boolean isDark()
+    {
+        return this.isValid()&&(X+Y)%2==1;
+    }
+    
+    /**
+     * The position has to be a dark square!
+     * 
+     * @return    the index of the dark square (0..31)
+     */
+    public int getSquare()
+    {
+        return 4*Y+X/2;
+    }
+    
     public boolean isValid()
     {
         if( 0<=X && X<8 && 0<=Y && Y<8 )
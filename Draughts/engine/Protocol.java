@@ -0,0 +1,323 @@
+package engine;
+
+import java.io.*;
+import java.util.*;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * The class Protocol lets other programs play against the engine. Commands are read line by line
+ * from stdin and the answers are written to stdout.
+ *
+ * Positions and moves are written in PDN with the squares 1..32, see Pdn. A move is written as
+ * source and target square separated by a dash, a capture with an x between all squares of the
+ * capturing sequence, e.g. 11-15 or 15x24x31. A capturing sequence is one move, the squares
+ * between its first and last square may be left out when only one sequence matches.
+ *
+ * position startpos [moves m1 m2 ...]     .. set the position
+ * position fen f [moves m1 m2 ...]        .. set the position of a FEN
+ * go [depth d] [movetime ms] [nodes n] [infinite]
+ *                                         .. search the position, answered with "bestmove m" or "bestmove none"
+ * stop                                    .. end the search at once, the best move of the last completed iteration is played
+ * setoption name value                    .. threads n, hash MB, book on|off, tablebase on|off, random on|off
+ * isready                                 .. answered with "readyok"
+ * print                                   .. print the board
+ * quit
+ *
+ * After every completed iteration of the search an info line is written:
+ *
+ *   info depth 6 score 3 nodes 2862 nps 35333 time 81 pv 8-11 24-20 15x24 28x19 4-8 27-24
+ *
+ * The score is seen by the player to move, a won or lost game is written as "score win n" or
+ * "score loss n" with the plies until the end, including the move of the search, every jump
+ * of a capturing sequence is a ply. The jumps after the first one of a capturing sequence are
+ * searched one by one like in a game. Without limits the search uses the time of the highest
+ * difficulty. The first moves are not random unless switched on.
+ *
+ * The log isn't printed to stdout, warnings and errors are sent as "info string" lines instead.
+ *
+ * Usage: java engine.Protocol
+ *
+ * @author  Lukas Gunthermann
+ * @version 1.0
+ */
+public class Protocol
+{
+    private final Player player;
+    private final PrintStream out;
+    private State state;
+    private Thread search;
+    
+    /**
+     * The player to move at the root of the running search
+     */
+    private volatile int turn;
+    
+    /**
+     * The state of the running search and the jumps of its capturing sequence which are already chosen
+     */
+    private volatile State root;
+    private volatile List<Move> jumps;
+    
+    private static final long unlimited = TimeUnit.DAYS.toMillis(365);
+    
+    public static void main(String[] args)
+    {
+        // before the player is created, which may already warn about the opening book
+        Log.setEcho(false);
+        Log.setListener(line -> System.out.println("info string "+line.replace('\n',' ')));
+        new Protocol(System.out).run(new BufferedReader(new InputStreamReader(System.in)));
+    }
+    
+    /**
+     * Constructor
+     *
+     * @param out   the stream of the answers
+     */
+    public Protocol(PrintStream out)
+    {
+        this.out = out;
+        this.state = new State();
+        this.search = null;
+        this.turn = 1;
+        this.root = this.state;
+        this.jumps = new ArrayList<Move>();
+        this.player = new Player("Protocol",false,4);
+        this.player.setRandomOpening(false);
+        this.player.setListener(this::sendInfo);
+    }
+    
+    /**
+     * Execute all commands until "quit" or the end of the input.
+     */
+    public void run(BufferedReader in)
+    {
+        try
+        {
+            String line;
+            while((line = in.readLine())!=null)
+                if(!this.execute(line))
+                    break;
+        }
+        catch(IOException e)
+        {
+            Error.send(false,"Can't read command\n Error: "+e);
+        }
+        this.stop();
+    }
+    
+    /**
+     * @return    false, if the command was "quit", otherwise true
+     */
+    public boolean execute(String line)
+    {
+        String[] tokens = line.trim().split("\\s+");
+        switch(tokens[0])
+        {
+            case "": break;
+            case "position": this.setPosition(tokens); break;
+            case "go": this.go(tokens); break;
+            case "stop": this.stop(); break;
+            case "setoption": this.setOption(tokens); break;
+            case "isready": this.send("readyok"); break;
+            case "print": this.send(this.state.getBoardAsString()); break;
+            case "quit": return false;
+            default: this.send("info string unknown command "+tokens[0]);
+        }
+        return true;
+    }
+    
+    private synchronized void send(String line)
+    {
+        this.out.println(line);
+        this.out.flush();
+    }
+    
+    private void setPosition(String[] tokens)
+    {
+        this.stop();
+        State state;
+        int moves = 2;
+        if(tokens.length>=2&&tokens[1].equals("startpos"))
+            state = new State();
+        else if(tokens.length>=3&&tokens[1].equals("fen"))
+        {
+            // a FEN may contain spaces
+            StringBuilder fen = new StringBuilder();
+            while(moves<tokens.length&&!tokens[moves].equals("moves"))
+                fen.append(tokens[moves++]);
+            state = Pdn.parseFen(fen.toString());
+            if(state==null)
+            {
+                this.send("info string illegal fen "+fen);
+                return;
+            }
+        }
+        else
+        {
+            this.send("info string unknown position");
+            return;
+        }
+        if(tokens.length>moves&&tokens[moves].equals("moves"))
+        {
+            for(int i=moves+1;i<tokens.length;i++)
+            {
+                List<Move> move = Pdn.parseMove(state,tokens[i]);
+                if(move==null)
+                {
+                    this.send("info string illegal move "+tokens[i]);
+                    return;
+                }
+                for(Move jump : move)
+                    state.move(jump);
+            }
+        }
+        this.state = state;
+    }
+    
+    /**
+     * Start the search in its own thread, so that "stop" can be read during the search.
+     */
+    private void go(String[] tokens)
+    {
+        this.stop();
+        long depth = 0;
+        long time = 0;
+        long nodes = 0;
+        boolean infinite = false;
+        for(int i=1;i<tokens.length;i++)
+        {
+            switch(tokens[i])
+            {
+                case "depth": depth = getNumber(tokens,++i); break;
+                case "movetime": time = getNumber(tokens,++i); break;
+                case "nodes": nodes = getNumber(tokens,++i); break;
+                case "infinite": infinite = true; break;
+                default: this.send("info string unknown limit "+tokens[i]);
+            }
+        }
+        if(depth<0||time<0||nodes<0)
+        {
+            this.send("info string limits have to be positive numbers");
+            return;
+        }
+        
+        // a single limit replaces the defaults of the difficulty
+        boolean limited = depth>0||nodes>0||infinite;
+        this.player.setMaxDepth((int)Math.min(depth,Integer.MAX_VALUE));
+        this.player.setTimeBudget(time>0?time:limited?unlimited:0);
+        this.player.setNodeBudget(nodes);
+        
+        State root = this.state.clone();
+        this.turn = root.getTurn();
+        this.root = root;
+        this.search = new Thread(() -> {
+            // the jumps of a capturing sequence are searched one by one like in a game
+            State state = root.clone();
+            ArrayList<Move> jumps = new ArrayList<Move>();
+            while(!state.isOver()&&(jumps.isEmpty()||state.getTurn()==root.getTurn()))
+            {
+                this.jumps = new ArrayList<Move>(jumps);
+                Move move = this.player.getAImove(state);
+                if(move==null)
+                    break;
+                state.move(move);
+                jumps.add(move);
+            }
+            List<String> moves = Pdn.getNotations(root,jumps);
+            this.send("bestmove "+(moves.isEmpty()?"none":moves.get(0)));
+        });
+        this.search.start();
+    }
+    
+    /**
+     * Stop the running search and wait until its best move is written.
+     */
+    private void stop()
+    {
+        if(this.search==null)
+            return;
+        try
+        {
+            // a stop before the search has started would be reset by the search
+            while(this.search.isAlive())
+            {
+                this.player.stop();
+                this.search.join(10);
+            }
+        }
+        catch(InterruptedException e)
+        {
+            Error.send(false,e.toString());
+        }
+        this.search = null;
+    }
+    
+    private void setOption(String[] tokens)
+    {
+        this.stop();
+        if(tokens.length<3)
+        {
+            this.send("info string setoption needs a name and a value");
+            return;
+        }
+        String value = tokens[2];
+        boolean on = value.equals("on");
+        switch(tokens[1])
+        {
+            case "threads": this.player.setThreads((int)Math.max(1,getNumber(tokens,2))); break;
+            case "hash": this.player.setTableSize((int)Math.max(1,getNumber(tokens,2))); break;
+            case "book": this.player.setOpeningBook(on?OpeningBook.getDefault():null); break;
+            case "tablebase": this.player.setTablebase(on?Tablebase.getDefault():null); break;
+            case "random": this.player.setRandomOpening(on); break;
+            default: this.send("info string unknown option "+tokens[1]);
+        }
+    }
+    
+    /**
+     * Called by the search after every completed iteration.
+     */
+    private void sendInfo(Player player)
+    {
+        long time = player.getElapsedTime();
+        long nodes = player.getSearchNodes();
+        StringBuilder line = new StringBuilder("info");
+        line.append(" depth ").append(player.getDepthReached());
+        line.append(" score ").append(getScoreString(this.turn==1?player.getScore():-player.getScore()));
+        line.append(" nodes ").append(nodes);
+        line.append(" nps ").append(nodes*1000/Math.max(1,time));
+        line.append(" time ").append(time);
+        line.append(" pv");
+        // the principal variation of a later jump starts after the jumps before it
+        ArrayList<Move> moves = new ArrayList<Move>(this.jumps);
+        moves.addAll(player.getPrincipalVariation());
+        for(String move : Pdn.getNotations(this.root,moves))
+            line.append(' ').append(move);
+        this.send(line.toString());
+    }
+    
+    private static String getScoreString(int score)
+    {
+        if(score>Search.mateBound)
+            return "win "+Search.getPliesToEnd(score);
+        if(score<-Search.mateBound)
+            return "loss "+Search.getPliesToEnd(score);
+        return ""+score;
+    }
+    
+    /**
+     * @return    the number after a limit or option, -1 if it is missing or no number
+     */
+    private static long getNumber(String[] tokens, int i)
+    {
+        if(i>=tokens.length)
+            return -1;
+        try
+        {
+            return Long.parseLong(tokens[i]);
+        }
+        catch(NumberFormatException e)
+        {
+            return -1;
+        }
+    }
+}
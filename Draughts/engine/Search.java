@@ -0,0 +1,475 @@
+package engine;
+
+import java.util.*;
+
+/**
+ * The class Search explores the game tree for a computer player.
+ * Every thread of a search has its own Search object with its own copy of the
+ * game state, its own move buffers and its own iteration depth, the limits and
+ * the transposition table are shared through the player.
+ *
+ * @author  Lukas Gunthermann
+ * @version 1.0
+ */
+public class Search
+{
+    private final Player player;
+    private final State state;
+    private long nodes;
+    private long quiescenceNodes;
+    private int searchDepth;
+    
+    /**
+     * Statistics of the search, see SearchStats
+     */
+    private long expandedNodes;
+    private long cutoffs;
+    private long firstMoveCutoffs;
+    private long thresholdExits;
+    private long[] depthNodes;
+    private long countedNodes;
+    
+    /**
+     * Whether results of other iterations may be taken from the transposition table.
+     * Otherwise the result of a search does not depend on the order of the visited positions.
+     */
+    private boolean shared;
+    
+    /**
+     * One buffer of move codes per search depth, so that the search creates no objects
+     */
+    private int[][] moveBuffers;
+    private int[][] orderBuffers;
+    
+    /**
+     * Move ordering: two killer moves per depth, which caused a cutoff in a sibling node,
+     * and a history value per move code, which grows with every cutoff of the move
+     */
+    private int[][] killers;
+    private final int[] history;
+    
+    /**
+     * Scores beyond this bound are won or lost positions, they depend on the depth of the node
+     */
+    public final static int mateBound = Integer.MAX_VALUE-1000;
+    
+    public State getState(){ return this.state; }
+    public long getNodes(){ return this.nodes+this.quiescenceNodes; }
+    public long getQuiescenceNodes(){ return this.quiescenceNodes; }
+    public int getSearchDepth(){ return this.searchDepth; }
+    public long getExpandedNodes(){ return this.expandedNodes; }
+    public long getCutoffs(){ return this.cutoffs; }
+    public long getFirstMoveCutoffs(){ return this.firstMoveCutoffs; }
+    public long getThresholdExits(){ return this.thresholdExits; }
+    
+    /**
+     * The nodes explored so far are counted for the previous iteration depth.
+     */
+    public void setSearchDepth(int depth)
+    {
+        this.countDepthNodes();
+        this.searchDepth = depth;
+    }
+    
+    private void countDepthNodes()
+    {
+        if(this.searchDepth>=this.depthNodes.length)
+            this.depthNodes = Arrays.copyOf(this.depthNodes,this.searchDepth+8);
+        this.depthNodes[this.searchDepth] += this.getNodes()-this.countedNodes;
+        this.countedNodes = this.getNodes();
+    }
+    
+    /**
+     * @return    the nodes of each iteration depth, indexed by the depth
+     */
+    public long[] getDepthNodes()
+    {
+        this.countDepthNodes();
+        return Arrays.copyOf(this.depthNodes,this.searchDepth+1);
+    }
+    public void setShared(boolean shared){ this.shared = shared; }
+    
+    /**
+     * Constructor
+     *
+     * @param player    the player who searches a move
+     * @param state     the root of the search, it is copied
+     */
+    public Search(Player player, State state)
+    {
+        this.player = player;
+        this.state = state.clone();
+        this.nodes = 0;
+        this.quiescenceNodes = 0;
+        this.searchDepth = 1;
+        this.expandedNodes = 0;
+        this.cutoffs = 0;
+        this.firstMoveCutoffs = 0;
+        this.thresholdExits = 0;
+        this.depthNodes = new long[0];
+        this.countedNodes = 0;
+        this.shared = false;
+        this.moveBuffers = new int[0][];
+        this.orderBuffers = new int[0][];
+        this.killers = new int[0][];
+        this.history = new int[32*32];
+    }
+    
+    /**
+     * @return    the buffer for the move codes at the given depth
+     */
+    private int[] getMoveBuffer(int depth)
+    {
+        if(depth>=this.moveBuffers.length)
+        {
+            this.moveBuffers = grow(this.moveBuffers,depth+8,State.maxMoves);
+            this.orderBuffers = grow(this.orderBuffers,depth+8,State.maxMoves);
+            this.killers = grow(this.killers,depth+8,2);
+        }
+        return this.moveBuffers[depth];
+    }
+    
+    private static int[][] grow(int[][] buffers, int length, int size)
+    {
+        int[][] grown = Arrays.copyOf(buffers,length);
+        for(int i=buffers.length;i<length;i++)
+            grown[i] = new int[size];
+        return grown;
+    }
+    
+    /**
+     * Sort the moves of a node: the best move of the transposition table first,
+     * then the killer moves of the depth, then all other moves by their history value.
+     */
+    private void orderMoves(int depth, int[] moves, int count, int ttMove)
+    {
+        int[] order = this.orderBuffers[depth];
+        int[] killers = this.killers[depth];
+        for(int i=0;i<count;i++)
+        {
+            int move = moves[i];
+            if(move==ttMove)
+                order[i] = Integer.MAX_VALUE;
+            else if(move==killers[0])
+                order[i] = Integer.MAX_VALUE-1;
+            else if(move==killers[1])
+                order[i] = Integer.MAX_VALUE-2;
+            else
+                order[i] = this.history[move];
+        }
+        
+        // insertion sort, the lists are short and mostly sorted already
+        for(int i=1;i<count;i++)
+        {
+            int move = moves[i];
+            int value = order[i];
+            int j = i;
+            for(;j>0&&order[j-1]<value;j--)
+            {
+                moves[j] = moves[j-1];
+                order[j] = order[j-1];
+            }
+            moves[j] = move;
+            order[j] = value;
+        }
+    }
+    
+    /**
+     * Remember a move which caused a cutoff.
+     */
+    private void addCutoff(int depth, int move, int remaining)
+    {
+        int[] killers = this.killers[depth];
+        if(killers[0]!=move)
+        {
+            killers[1] = killers[0];
+            killers[0] = move;
+        }
+        this.history[move] += remaining*remaining;
+        
+        // keep the values below the killer moves
+        if(this.history[move]>(1<<30))
+            for(int i=0;i<this.history.length;i++)
+                this.history[i] >>= 1;
+    }
+    
+    /**
+     * Search a move of the root state.
+     *
+     * @param move      the move code
+     * @param alpha     alpha
+     * @param beta      beta
+     *
+     * @return    the result of the move
+     */
+    public int searchMove(int move, int alpha, int beta)
+    {
+        this.state.doMove(move);
+        int result = this.minimax(0,alpha,beta);
+        this.state.undoMove();
+        return result;
+    }
+    
+    /**
+     * The moves are made and taken back on the same state object.
+     *
+     * @param depth     remaining depth to be explored
+     * @param alpha     alpha
+     * @param beta      beta
+     */
+    private int minimax(int depth, int alpha, int beta)
+    {
+        State state = this.state;
+        int[] moves = this.getMoveBuffer(depth);
+        int count = state.generateMoves(moves);
+        this.nodes++;
+        
+        // check the budget every 1024 nodes
+        if((this.nodes&1023)==0)
+            this.player.checkBudget(1024,this.searchDepth);
+        if(this.player.isAborted())
+            return 0;
+        
+        int player = state.getTurn();
+        int bestResult;
+        if(player==1)
+            bestResult = -Integer.MAX_VALUE;
+        else
+            bestResult = Integer.MAX_VALUE;
+        
+        if(count==0)
+            return bestResult+((player==1?1:-1)*(depth));
+        
+        // solved endgames are taken from the tablebase
+        Tablebase tablebase = this.player.getTablebase();
+        if(tablebase!=null)
+        {
+            int value = tablebase.probe(state);
+            if(value!=Tablebase.unknown)
+                return getTablebaseScore(value,depth,player);
+        }
+        
+        // the search goes on below the horizon until no more captures are pending
+        int searchDepth = this.searchDepth;
+        if(depth>=searchDepth)
+        {
+            if(this.player.isQuiescence()&&Move.isCap(moves[0]))
+                return this.searchCaptures(depth,moves,count,alpha,beta);
+            return this.evaluate();
+        }
+        
+        // check the threshold every 4 steps
+        if(depth>0&&depth%4==0)
+        {
+            int val = this.evaluate();
+            if(this.player.isOutsideThreshold(val))
+            {
+                this.thresholdExits++;
+                return val;
+            }
+        }
+        
+        // use the stored result if the position was already searched deep enough
+        TranspositionTable table = this.player.getTable();
+        int remaining = searchDepth-depth;
+        long entry = table.probe(state.getHash());
+        int ttMove = entry!=0?TranspositionTable.getMove(entry):0;
+        if(entry!=0&&(this.shared?TranspositionTable.getDepth(entry)>=remaining
+            :table.isCurrent(entry,searchDepth)&&TranspositionTable.getDepth(entry)==remaining))
+        {
+            int score = fromTable(TranspositionTable.getScore(entry),depth);
+            switch(TranspositionTable.getBound(entry))
+            {
+                case TranspositionTable.exact: return score;
+                case TranspositionTable.lower: alpha = Math.max(alpha,score); break;
+                case TranspositionTable.upper: beta = Math.min(beta,score); break;
+            }
+            if(beta <= alpha)
+                return score;
+        }
+        
+        if(this.player.isMoveOrdering())
+            this.orderMoves(depth,moves,count,ttMove);
+        
+        int alphaOrig = alpha;
+        int betaOrig = beta;
+        int bestMove = 0;
+        this.expandedNodes++;
+        for(int i=0;i<count;i++)
+        {
+            state.doMove(moves[i]);
+            int result = this.searchChild(depth,i==0,player,alpha,beta);
+            state.undoMove();
+            if(this.player.isAborted())
+                return 0;
+            if(Player.isBetter(player,result,bestResult))
+                bestMove = moves[i];
+            if(player == 1)
+            {
+                bestResult = Math.max(bestResult,result);
+                alpha = Math.max(alpha,result);
+            }
+            else
+            {
+                bestResult = Math.min(bestResult,result);
+                beta = Math.min(beta,result);
+            }
+            
+            if(beta <= alpha)
+            {
+                this.cutoffs++;
+                if(i==0)
+                    this.firstMoveCutoffs++;
+                this.addCutoff(depth,moves[i],remaining);
+                break;
+            }
+        }
+        
+        int bound;
+        if(bestResult<=alphaOrig)
+            bound = TranspositionTable.upper;
+        else if(bestResult>=betaOrig)
+            bound = TranspositionTable.lower;
+        else
+            bound = TranspositionTable.exact;
+        table.store(state.getHash(),remaining,bound,toTable(bestResult,depth),bestMove,searchDepth);
+        
+        return bestResult;
+    }
+    
+    /**
+     * @return    the evaluation of the current state, taken from the cache of the player if possible
+     */
+    private int evaluate()
+    {
+        return this.player.getEvaluationCache().evaluate(this.state);
+    }
+    
+    /**
+     * Quiescence search: below the horizon only captures are searched until the position is quiet.
+     * Captures are compulsory, so a player cannot stand pat and all captures of a node are searched.
+     * The nodes of the quiescence search are counted separately.
+     */
+    private int quiescence(int depth, int alpha, int beta)
+    {
+        State state = this.state;
+        int[] moves = this.getMoveBuffer(depth);
+        int count = state.generateMoves(moves);
+        this.quiescenceNodes++;
+        
+        if((this.quiescenceNodes&1023)==0)
+            this.player.checkBudget(1024,this.searchDepth);
+        if(this.player.isAborted())
+            return 0;
+        
+        if(count==0)
+            return state.getTurn()==1?-Integer.MAX_VALUE+depth:Integer.MAX_VALUE-depth;
+        if(!Move.isCap(moves[0]))
+            return this.evaluate();
+        return this.searchCaptures(depth,moves,count,alpha,beta);
+    }
+    
+    /**
+     * @param moves     the captures of the node
+     * @param count     the number of captures
+     */
+    private int searchCaptures(int depth, int[] moves, int count, int alpha, int beta)
+    {
+        State state = this.state;
+        int player = state.getTurn();
+        int bestResult = player==1?-Integer.MAX_VALUE:Integer.MAX_VALUE;
+        for(int i=0;i<count;i++)
+        {
+            state.doMove(moves[i]);
+            int result = this.quiescence(depth+1,alpha,beta);
+            state.undoMove();
+            if(this.player.isAborted())
+                return 0;
+            if(player==1)
+            {
+                bestResult = Math.max(bestResult,result);
+                alpha = Math.max(alpha,result);
+            }
+            else
+            {
+                bestResult = Math.min(bestResult,result);
+                beta = Math.min(beta,result);
+            }
+            if(beta <= alpha)
+                break;
+        }
+        return bestResult;
+    }
+    
+    /**
+     * Principal variation search: the first move is expected to be the best one and searched with
+     * the full window. All other moves are only scouted with a null window, which shows whether they
+     * are better, and searched again with the full window if they are.
+     *
+     * @param first     whether the child is the first move of the node
+     * @param player    the player to move in the node
+     */
+    private int searchChild(int depth, boolean first, int player, int alpha, int beta)
+    {
+        if(first||!this.player.isPrincipalVariation())
+            return minimax(depth+1,alpha,beta);
+        
+        int result = player==1?minimax(depth+1,alpha,alpha+1):minimax(depth+1,beta-1,beta);
+        
+        // the move is searched again only if it is inside the window
+        if(result<=alpha||result>=beta||this.player.isAborted())
+            return result;
+        return minimax(depth+1,alpha,beta);
+    }
+    
+    /**
+     * A won or lost endgame is scored like the end of the game after the given number of turns.
+     *
+     * @param value     the value of the tablebase
+     * @param player    the player to move
+     */
+    private static int getTablebaseScore(int value, int depth, int player)
+    {
+        int score;
+        if(value>0)
+            score = Integer.MAX_VALUE-(depth+value);
+        else if(value<0)
+            score = -Integer.MAX_VALUE+(depth-value-1);
+        else
+            return 0;
+        return player==1?score:-score;
+    }
+    
+    /**
+     * The root move is made by searchMove, so a node at depth d of minimax is d+1 plies after the root.
+     * A game which ends at that node is scored Integer.MAX_VALUE-d, see minimax.
+     *
+     * @param score     a won or lost score beyond mateBound
+     * @return    the plies from the root until the end of the game
+     */
+    public static int getPliesToEnd(int score)
+    {
+        return Integer.MAX_VALUE-Math.abs(score)+1;
+    }
+    
+    /**
+     * Won and lost scores are stored relative to the node, so that they can be used at any depth.
+     */
+    private static int toTable(int score, int depth)
+    {
+        if(score>mateBound)
+            return score+depth;
+        if(score<-mateBound)
+            return score-depth;
+        return score;
+    }
+    
+    private static int fromTable(int score, int depth)
+    {
+        if(score>mateBound)
+            return score-depth;
+        if(score<-mateBound)
+            return score+depth;
+        return score;
+    }
+}
@@ -0,0 +1,43 @@
+package engine;
+
+import jdk.jfr.*;
+
+/**
+ * The class SearchEvent records the search of a move of a computer player in Java Flight Recorder,
+ * e.g. to find slow moves next to the garbage collections of the same recording.
+ *
+ *   java -XX:StartFlightRecording=filename=draughts.jfr ...
+ *
+ * Moves from the opening book, random opening moves and forced moves are not searched and not recorded.
+ *
+ * @author  Lukas Gunthermann
+ * @version 1.0
+ */
+@Name("engine.Search")
+@Label("AI Move Search")
+@Category({"Draughts","Search"})
+@Description("The search of a move of a computer player")
+@Threshold("0 ms")
+class SearchEvent extends Event
+{
+    @Label("Player")
+    String player;
+    
+    @Label("Difficulty")
+    int difficulty;
+    
+    @Label("Threads")
+    int threads;
+    
+    @Label("Depth Reached")
+    int depth;
+    
+    @Label("Nodes")
+    long nodes;
+    
+    @Label("Quiescence Nodes")
+    long quiescenceNodes;
+    
+    @Label("Score")
+    int score;
+}
@@ -0,0 +1,87 @@
+package engine;
+
+import java.lang.management.ManagementFactory;
+import javax.management.ObjectName;
+
+/**
+ * The class SearchMonitor publishes the statistics of the searches as the MBean "engine:type=SearchStats".
+ * The MBean is registered with the first search, every player records its searches, see Player.getAImove.
+ *
+ * @author  Lukas Gunthermann
+ * @version 1.0
+ */
+public class SearchMonitor implements SearchStatsMXBean
+{
+    private static SearchMonitor monitor = null;
+    
+    private SearchStats last;
+    private long searches;
+    private long totalNodes;
+    private long totalTime;
+    
+    public static final String name = "engine:type=SearchStats";
+    
+    private SearchMonitor()
+    {
+        this.last = new SearchStats();
+        this.searches = 0;
+        this.totalNodes = 0;
+        this.totalTime = 0;
+    }
+    
+    /**
+     * @return    the monitor, which is registered when it is used the first time
+     */
+    public static synchronized SearchMonitor getMonitor()
+    {
+        if(monitor==null)
+        {
+            monitor = new SearchMonitor();
+            try
+            {
+                ManagementFactory.getPlatformMBeanServer().registerMBean(monitor,new ObjectName(name));
+            }
+            catch(Exception e)
+            {
+                Error.send(false,"Can't register the search statistics\n Error: "+e);
+            }
+        }
+        return monitor;
+    }
+    
+    /**
+     * Record the statistics of a finished search.
+     */
+    static void record(SearchStats stats)
+    {
+        getMonitor().add(stats);
+    }
+    
+    private synchronized void add(SearchStats stats)
+    {
+        this.last = stats;
+        this.searches++;
+        this.totalNodes += stats.getNodes();
+        this.totalTime += stats.getTime();
+    }
+    
+    private synchronized SearchStats getLast(){ return this.last; }
+    
+    public int getLastDepth(){ return this.getLast().getDepth(); }
+    public long getLastNodes(){ return this.getLast().getNodes(); }
+    public long getLastQuiescenceNodes(){ return this.getLast().getQuiescenceNodes(); }
+    public long getLastTime(){ return this.getLast().getTime(); }
+    public long getLastNodesPerSecond(){ return this.getLast().getNodesPerSecond(); }
+    public long[] getLastDepthNodes(){ return this.getLast().getDepthNodes(); }
+    public double getLastCutoffRate(){ return this.getLast().getCutoffRate(); }
+    public double getLastFirstMoveCutoffRate(){ return this.getLast().getFirstMoveCutoffRate(); }
+    public long getLastThresholdExits(){ return this.getLast().getThresholdExits(); }
+    public double getLastTableHitRate(){ return this.getLast().getTableHitRate(); }
+    public double getLastCacheHitRate(){ return this.getLast().getCacheHitRate(); }
+    public double getLastBranchingFactor(){ return this.getLast().getBranchingFactor(); }
+    public String getLastSearch(){ return this.getLast().getString(); }
+    
+    public synchronized long getSearches(){ return this.searches; }
+    public synchronized long getTotalNodes(){ return this.totalNodes; }
+    public synchronized long getTotalTime(){ return this.totalTime; }
+}
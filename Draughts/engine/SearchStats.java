@@ -0,0 +1,130 @@
+package engine;
+
+import java.util.Arrays;
+
+/**
+ * The class SearchStats collects the statistics of one search of a player, see Player.getSearchStats.
+ * Every search thread counts in its own Search object, the counts are added when the thread is finished.
+ *
+ * nodes per depth      .. the nodes of each iteration of the iterative deepening, including the quiescence search
+ * cutoff rate          .. the share of the searched nodes which are left after a beta cutoff
+ * first move cutoffs   .. the share of the cutoffs which are caused by the first move, a measure of the move ordering
+ * threshold exits      .. the nodes which end because their evaluation is far outside the threshold of the player
+ * branching factor     .. the nodes of the last iteration divided by the nodes of the iteration before
+ *
+ * @author  Lukas Gunthermann
+ * @version 1.0
+ */
+public class SearchStats
+{
+    private int depth;
+    private long nodes;
+    private long quiescenceNodes;
+    private long[] depthNodes;
+    private long expanded;
+    private long cutoffs;
+    private long firstMoveCutoffs;
+    private long thresholdExits;
+    private long tableHits;
+    private long tableProbes;
+    private long cacheHits;
+    private long cacheProbes;
+    private long time;
+    
+    public synchronized int getDepth(){ return this.depth; }
+    public synchronized long getNodes(){ return this.nodes; }
+    public synchronized long getQuiescenceNodes(){ return this.quiescenceNodes; }
+    public synchronized long getCutoffs(){ return this.cutoffs; }
+    public synchronized long getFirstMoveCutoffs(){ return this.firstMoveCutoffs; }
+    public synchronized long getThresholdExits(){ return this.thresholdExits; }
+    
+    /**
+     * @return    the time of the search in ms
+     */
+    public synchronized long getTime(){ return this.time/1000000; }
+    
+    public SearchStats()
+    {
+        this.depthNodes = new long[0];
+    }
+    
+    /**
+     * Add the counts of a finished search thread.
+     */
+    synchronized void add(Search search)
+    {
+        this.nodes += search.getNodes();
+        this.quiescenceNodes += search.getQuiescenceNodes();
+        this.expanded += search.getExpandedNodes();
+        this.cutoffs += search.getCutoffs();
+        this.firstMoveCutoffs += search.getFirstMoveCutoffs();
+        this.thresholdExits += search.getThresholdExits();
+        long[] depthNodes = search.getDepthNodes();
+        if(depthNodes.length>this.depthNodes.length)
+            this.depthNodes = Arrays.copyOf(this.depthNodes,depthNodes.length);
+        for(int i=0;i<depthNodes.length;i++)
+            this.depthNodes[i] += depthNodes[i];
+    }
+    
+    /**
+     * @param depth         the depth of the last completed iteration
+     * @param time          the time of the search in ns
+     * @param tableHits     the hits of the transposition table during the search, tableProbes all its probes
+     * @param cacheHits     the hits of the evaluation cache during the search, cacheProbes all its probes
+     */
+    synchronized void finish(int depth, long time, long tableHits, long tableProbes, long cacheHits, long cacheProbes)
+    {
+        this.depth = depth;
+        this.time = time;
+        this.tableHits = tableHits;
+        this.tableProbes = tableProbes;
+        this.cacheHits = cacheHits;
+        this.cacheProbes = cacheProbes;
+    }
+    
+    /**
+     * @return    the nodes of each iteration, index 0 is the first iteration
+     */
+    public synchronized long[] getDepthNodes()
+    {
+        long[] nodes = new long[Math.max(0,this.depthNodes.length-1)];
+        for(int i=0;i<nodes.length;i++)
+            nodes[i] = this.depthNodes[i+1];
+        return nodes;
+    }
+    
+    private static double getRate(long part, long total)
+    {
+        return total==0?0.0:(double)part/total;
+    }
+    
+    public synchronized double getCutoffRate(){ return getRate(this.cutoffs,this.expanded); }
+    public synchronized double getFirstMoveCutoffRate(){ return getRate(this.firstMoveCutoffs,this.cutoffs); }
+    public synchronized double getTableHitRate(){ return getRate(this.tableHits,this.tableProbes); }
+    public synchronized double getCacheHitRate(){ return getRate(this.cacheHits,this.cacheProbes); }
+    
+    public synchronized long getNodesPerSecond()
+    {
+        return this.time==0?0:(long)(this.nodes*1e9/this.time);
+    }
+    
+    /**
+     * @return    the nodes of the last iteration divided by those of the iteration before, 0 without two iterations
+     */
+    public synchronized double getBranchingFactor()
+    {
+        int last = Math.min(this.depth,this.depthNodes.length-1);
+        if(last<2||this.depthNodes[last-1]==0)
+            return 0.0;
+        return (double)this.depthNodes[last]/this.depthNodes[last-1];
+    }
+    
+    public synchronized String getString()
+    {
+        return String.format("depth %d, %d nodes (%d quiescence), %dms, %d nodes/s, cutoffs %.1f%% (first move %.1f%%), "
+            +"threshold exits %d, TT %.1f%%, EC %.1f%%, branching factor %.2f",
+            this.depth,this.nodes,this.quiescenceNodes,this.getTime(),this.getNodesPerSecond(),
+            100*this.getCutoffRate(),100*this.getFirstMoveCutoffRate(),this.thresholdExits,
+            100*this.getTableHitRate(),100*this.getCacheHitRate(),this.getBranchingFactor());
+    }
+}
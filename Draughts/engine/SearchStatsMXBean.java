@@ -0,0 +1,29 @@
+package engine;
+
+/**
+ * The interface SearchStatsMXBean shows the statistics of the searches in a JMX console, e.g. jconsole.
+ * The values of the last search are those of SearchStats, the totals count all searches of all players.
+ *
+ * @author  Lukas Gunthermann
+ * @version 1.0
+ */
+public interface SearchStatsMXBean
+{
+    public int getLastDepth();
+    public long getLastNodes();
+    public long getLastQuiescenceNodes();
+    public long getLastTime();
+    public long getLastNodesPerSecond();
+    public long[] getLastDepthNodes();
+    public double getLastCutoffRate();
+    public double getLastFirstMoveCutoffRate();
+    public long getLastThresholdExits();
+    public double getLastTableHitRate();
+    public double getLastCacheHitRate();
+    public double getLastBranchingFactor();
+    public String getLastSearch();
+    
+    public long getSearches();
+    public long getTotalNodes();
+    public long getTotalTime();
+}
@@ -0,0 +1,841 @@
+package engine;
+
+import java.util.*;
+
+/**
+ *  This class represents a game state.
+ *
+ *  The board is stored as bitboards over the 32 dark squares.
+ *  Square 0 is the top left dark square (1|0), square 31 the bottom right one (6|7).
+ *  Each square has the index 4*Y+X/2, so a diagonal step is a shift by 3, 4 or 5 bits
+ *  depending on the parity of the row.
+ *
+ * @author  Lukas Gunthermann
+ * @version 1.0
+ */
+public class State
+{
+    /**
+     * 1 .. black
+     * 2 .. white
+     */
+    private int turn;
+    private int moveNo;
+    
+    /**
+     * One bit per dark square
+     * black .. all black pieces
+     * white .. all white pieces
+     * kings .. all kings of both players
+     */
+    private int black;
+    private int white;
+    private int kings;
+    
+    /**
+     * The square of the capturing piece during a capturing sequence, otherwise -1
+     */
+    private int lastHit;
+    private ArrayList<Move> availableMoves;
+    
+    /**
+     * Zobrist hash of the state, it is updated with every move
+     */
+    private long hash;
+    
+    /**
+     * Sum of the piece values of the evaluation, it is updated with every move
+     */
+    private int pieceScore;
+    
+    /**
+     * Undo records of the moves made with doMove, see getUndoRecord
+     */
+    private int[] history;
+    private long[] hashHistory;
+    private int[] scoreHistory;
+    private int historySize;
+    
+    private static final int evenRows = 0x0F0F0F0F;
+    private static final int oddRows = 0xF0F0F0F0;
+    private static final int leftColumn = 0x11111111;
+    private static final int rightColumn = 0x88888888;
+    private static final int promotionRows = 0xF000000F;
+    
+    /**
+     * Directions of a diagonal step
+     * 0 .. up left    (-1|-1)
+     * 1 .. up right   (+1|-1)
+     * 2 .. down left  (-1|+1)
+     * 3 .. down right (+1|+1)
+     */
+    private static final int upLeft = 0;
+    private static final int upRight = 1;
+    private static final int downLeft = 2;
+    private static final int downRight = 3;
+    
+    /**
+     * The maximum number of legal moves in any position (12 kings with 4 directions each)
+     */
+    public static final int maxMoves = 48;
+    
+    /**
+     * The diagonal neighbours of each square
+     */
+    private static final int[] neighbours = new int[32];
+    static
+    {
+        for(int square=0;square<32;square++)
+            for(int dir=0;dir<4;dir++)
+                neighbours[square] |= shift(1<<square,dir);
+    }
+    
+    public int getTurn(){ return this.turn; }
+    public int getMoveNo(){ return this.moveNo; }
+    public int getBlack(){ return this.black; }
+    public int getWhite(){ return this.white; }
+    public int getKings(){ return this.kings; }
+    public int getLastHit(){ return this.lastHit; }
+    public long getHash(){ return this.hash; }
+    public int getPieceScore(){ return this.pieceScore; }
+    public int getHistorySize(){ return this.historySize; }
+    public boolean isOver(){ return !this.hasMoves(); }
+    
+    /**
+     * The list is calculated when it is needed the first time after a move.
+     *
+     * @return    a list with all legal moves
+     */
+    public ArrayList<Move> getAvailableMoves()
+    {
+        if(this.availableMoves==null)
+            this.calcAvailableMoves();
+        return this.availableMoves;
+    }
+    
+    /**
+     * Constructor
+     */
+    public State()
+    {
+        this.turn = 1;
+        this.moveNo = 1;
+        this.setBoard(new int[][]
+        {
+            {0, 2, 0, 2, 0, 2, 0, 2},
+            {2, 0, 2, 0, 2, 0, 2, 0},
+            {0, 2, 0, 2, 0, 2, 0, 2},
+            {0, 0, 0, 0, 0, 0, 0, 0},
+            {0, 0, 0, 0, 0, 0, 0, 0},
+            {1, 0, 1, 0, 1, 0, 1, 0},
+            {0, 1, 0, 1, 0, 1, 0, 1},
+            {1, 0, 1, 0, 1, 0, 1, 0},
+        });
+        // this.setBoard(new int[][]
+        // {
+            // {0, 0, 0, 2, 0, 0, 0, 0},
+            // {0, 0, 0, 0, 0, 0, 0, 0},
+            // {0, 0, 0, 0, 0, 2, 0, 0},
+            // {0, 0, 0, 0, 2, 0, 0, 0},
+            // {0, 0, 0, 2, 0, 0, 0, 0},
+            // {0, 0, 0, 0, 0, 0, 0, 0},
+            // {0, 0, 0, 0, 0, 0, 0, 0},
+            // {1, 0, 0, 0, 0, 0, 0, 0},
+        // });
+        this.lastHit = -1;
+        this.history = new int[64];
+        this.hashHistory = new long[64];
+        this.scoreHistory = new int[64];
+        this.historySize = 0;
+        this.hash = Zobrist.hash(this);
+        this.pieceScore = this.calcPieceScore();
+        this.calcAvailableMoves();
+    }
+    
+    /**
+     * Copy-Constructor
+     *
+     * The list of available moves is shared, it is replaced but never modified by a state.
+     * The undo history is not copied, moves made before the copy can't be undone on it.
+     */
+    public State(State state)
+    {
+        this.turn = state.turn;
+        this.moveNo = state.moveNo;
+        this.black = state.black;
+        this.white = state.white;
+        this.kings = state.kings;
+        this.lastHit = state.lastHit;
+        this.availableMoves = state.availableMoves;
+        this.hash = state.hash;
+        this.pieceScore = state.pieceScore;
+        this.history = new int[64];
+        this.hashHistory = new long[64];
+        this.scoreHistory = new int[64];
+        this.historySize = 0;
+    }
+    
+    /**
+     * Constructor for a position given by its bitboards, no capturing sequence is active.
+     *
+     * @param black     all black pieces
+     * @param white     all white pieces
+     * @param kings     all kings of both players
+     * @param turn      the player to move
+     */
+    public State(int black, int white, int kings, int turn)
+    {
+        this.moveNo = 1;
+        this.history = new int[64];
+        this.hashHistory = new long[64];
+        this.scoreHistory = new int[64];
+        this.setPosition(black,white,kings,turn);
+    }
+    
+    @Override
+    public State clone(){ return new State(this); }
+    
+    /**
+     * Replace the position on the board, the undo history is cleared.
+     */
+    public void setPosition(int black, int white, int kings, int turn)
+    {
+        this.black = black;
+        this.white = white;
+        this.kings = kings&(black|white);
+        this.turn = turn;
+        this.lastHit = -1;
+        this.historySize = 0;
+        this.hash = Zobrist.hash(this);
+        this.pieceScore = this.calcPieceScore();
+        this.availableMoves = null;
+    }
+    
+    /**
+     * Fill the bitboards from a board array with the pieces 0..4.
+     */
+    private void setBoard(int[][] board)
+    {
+        this.black = 0;
+        this.white = 0;
+        this.kings = 0;
+        for(int square=0;square<32;square++)
+        {
+            Position pos = Position.getPosition(square);
+            int stone = board[pos.Y][pos.X];
+            int bit = 1<<square;
+            if(getPlayer(stone)==1)
+                this.black |= bit;
+            else if(getPlayer(stone)==2)
+                this.white |= bit;
+            if(stone==3||stone==4)
+                this.kings |= bit;
+        }
+    }
+    
+    /**
+     * @return    the board as a 2-dimensional array with the pieces 0..4
+     */
+    public int[][] getBoard()
+    {
+        int[][] board = new int[8][8];
+        for(int square=0;square<32;square++)
+        {
+            Position pos = Position.getPosition(square);
+            board[pos.Y][pos.X] = this.getStone(square);
+        }
+        return board;
+    }
+    
+    public boolean isValidMove(Move move){ return move!=null&&this.getAvailableMoves().contains(move); }
+    
+    public State move(Move move)
+    {
+        if(!this.isValidMove(move))
+            return this;
+        
+        this.doMove(move.getCode());
+        return this;
+    }
+    
+    /**
+     * Make a move in place and store an undo record, so that it can be taken back with undoMove.
+     * The move has to be legal in the current state of the game!
+     *
+     * @param move  a move code as created by Move.getCode
+     */
+    public void doMove(int move)
+    {
+        int src = Move.getSrc(move);
+        int tar = Move.getTar(move);
+        int srcBit = 1<<src;
+        int tarBit = 1<<tar;
+        int captured = 0;
+        boolean promoted = false;
+        int prevTurn = this.turn;
+        int prevLastHit = this.lastHit;
+        long prevHash = this.hash;
+        int prevScore = this.pieceScore;
+        int stone = this.getStone(src);
+        this.pieceScore -= this.getPieceScore(src,stone);
+        
+        // place the piece at its new postion and clear the source position
+        if((this.black&srcBit)!=0)
+            this.black ^= srcBit|tarBit;
+        else
+            this.white ^= srcBit|tarBit;
+        if((this.kings&srcBit)!=0)
+            this.kings ^= srcBit|tarBit;
+        
+        boolean sequence = false;
+        if(Move.isCap(move))
+        {
+            // remove captured stone
+            int cap = Move.getCap(move);
+            captured = this.getStone(cap);
+            this.hash ^= Zobrist.getPiece(captured,cap);
+            this.pieceScore -= this.getPieceScore(cap,captured);
+            int capBit = ~(1<<cap);
+            this.black &= capBit;
+            this.white &= capBit;
+            this.kings &= capBit;
+            
+            // check for capturing sequence
+            sequence = this.getCaptures(tarBit)!=0;
+        }
+        
+        if(sequence)
+        {
+            this.lastHit = tar;
+        }
+        else
+        {
+            // Promotions end capturing sequences
+            if((tarBit&promotionRows&~this.kings)!=0)
+            {
+                this.kings |= tarBit;
+                promoted = true;
+            }
+            this.lastHit = -1;
+            this.turn = otherPlayer(this.turn);
+            this.moveNo++;
+        }
+        this.availableMoves = null;
+        this.pieceScore += this.getPieceScore(tar,promoted?stone+2:stone);
+        
+        // update the hash with the moved piece, the turn and the capturing sequence
+        this.hash ^= Zobrist.getPiece(stone,src)^Zobrist.getPiece(promoted?stone+2:stone,tar);
+        this.hash ^= Zobrist.getTurn(prevTurn)^Zobrist.getTurn(this.turn);
+        this.hash ^= Zobrist.getLastHit(prevLastHit)^Zobrist.getLastHit(this.lastHit);
+        
+        if(this.historySize==this.history.length)
+        {
+            this.history = Arrays.copyOf(this.history,2*this.history.length);
+            this.hashHistory = Arrays.copyOf(this.hashHistory,2*this.hashHistory.length);
+            this.scoreHistory = Arrays.copyOf(this.scoreHistory,2*this.scoreHistory.length);
+        }
+        this.hashHistory[this.historySize] = prevHash;
+        this.scoreHistory[this.historySize] = prevScore;
+        this.history[this.historySize++] = getUndoRecord(move,captured,promoted,prevLastHit,prevTurn);
+    }
+    
+    /**
+     * Take back the last move made with doMove.
+     */
+    public void undoMove()
+    {
+        if(this.historySize==0)
+        {
+            Error.send(false,"No move to undo");
+            return;
+        }
+        int record = this.history[--this.historySize];
+        int move = record&0x3FF;
+        int captured = (record>>>10)&0x7;
+        boolean promoted = ((record>>>13)&1)!=0;
+        int prevLastHit = ((record>>>14)&0x3F)-1;
+        int prevTurn = (record>>>20)&0x3;
+        
+        int src = Move.getSrc(move);
+        int tar = Move.getTar(move);
+        int srcBit = 1<<src;
+        int tarBit = 1<<tar;
+        
+        if(promoted)
+            this.kings &= ~tarBit;
+        
+        // move the piece back to its source position
+        if((this.black&tarBit)!=0)
+            this.black ^= srcBit|tarBit;
+        else
+            this.white ^= srcBit|tarBit;
+        if((this.kings&tarBit)!=0)
+            this.kings ^= srcBit|tarBit;
+        
+        // put the captured stone back on the board
+        if(captured!=0)
+        {
+            int capBit = 1<<Move.getCap(move);
+            if(getPlayer(captured)==1)
+                this.black |= capBit;
+            else
+                this.white |= capBit;
+            if(captured>2)
+                this.kings |= capBit;
+        }
+        
+        if(prevTurn!=this.turn)
+            this.moveNo--;
+        this.turn = prevTurn;
+        this.lastHit = prevLastHit;
+        this.hash = this.hashHistory[this.historySize];
+        this.pieceScore = this.scoreHistory[this.historySize];
+        this.availableMoves = null;
+    }
+    
+    /**
+     * The value of a piece for the evaluation includes one point for each neighbouring own piece.
+     * A piece on the board gets a point from each neighbour and gives one to each neighbour,
+     * so two points per neighbour are added or removed with the piece.
+     *
+     * @return    the change of the piece score when the stone is placed on or removed from the square
+     */
+    private int getPieceScore(int square, int stone)
+    {
+        int own = (this.black&1<<square)!=0?this.black:this.white;
+        int connections = Integer.bitCount(neighbours[square]&own&~(1<<square));
+        return Analysis.getMaterial(stone,square)+(getPlayer(stone)==1?2:-2)*connections;
+    }
+    
+    /**
+     * @return    the piece score of the whole board
+     */
+    private int calcPieceScore()
+    {
+        int score = 0;
+        for(int square=0;square<32;square++)
+        {
+            int stone = this.getStone(square);
+            if(stone!=0)
+            {
+                int own = getPlayer(stone)==1?this.black:this.white;
+                int connections = Integer.bitCount(neighbours[square]&own);
+                score += Analysis.getMaterial(stone,square)+(getPlayer(stone)==1?1:-1)*connections;
+            }
+        }
+        return score;
+    }
+    
+    /**
+     * A piece can either step or capture into each direction, the moves are counted for both players
+     * regardless of the turn and of mandatory captures.
+     *
+     * @return    the number of moves of all black pieces minus the number of moves of all white pieces
+     */
+    public int getMobility()
+    {
+        int empty = ~(this.black|this.white);
+        int mobility = 0;
+        for(int dir=0;dir<4;dir++)
+        {
+            int back = 3-dir;
+            mobility += Integer.bitCount(this.getMovers(this.black,dir)&shift(empty,back))+Integer.bitCount(this.getJumpers(this.black,dir));
+            mobility -= Integer.bitCount(this.getMovers(this.white,dir)&shift(empty,back))+Integer.bitCount(this.getJumpers(this.white,dir));
+        }
+        return mobility;
+    }
+    
+    /**
+     * During a capturing sequence only the capturing piece is counted, independent of the player.
+     *
+     * @return    the number of capturing moves the player could make in this state
+     */
+    public int getCaptureCount(int player)
+    {
+        int stones = this.lastHit>=0?1<<this.lastHit:player==1?this.black:this.white;
+        int count = 0;
+        for(int dir=0;dir<4;dir++)
+            count += Integer.bitCount(this.getJumpers(stones,dir));
+        return count;
+    }
+    
+    /**
+     * An undo record packs all information lost by a move into one integer:
+     *
+     * bits  0..9  .. the move code
+     * bits 10..12 .. the captured piece (0..4)
+     * bit  13     .. whether the piece was promoted
+     * bits 14..19 .. the previous lastHit square + 1
+     * bits 20..21 .. the previous turn
+     */
+    private static int getUndoRecord(int move, int captured, boolean promoted, int lastHit, int turn)
+    {
+        return move|captured<<10|(promoted?1:0)<<13|(lastHit+1)<<14|turn<<20;
+    }
+    
+    /**
+     * @return    a list with all legal source positions
+     */
+    public ArrayList<Position> getSrcPositionitions()
+    {
+        ArrayList<Position> source = new ArrayList<Position>();
+        ArrayList<Move> moves = this.getAvailableMoves();
+        
+        for(Move move : moves)
+        {
+            Position src = move.src;
+            if(!source.contains(src))
+                source.add(src);
+        }
+        
+        return source;
+    }
+    
+    public boolean isValidSrcPosition(Position src){ return this.getSrcPositionitions().contains(src); }
+    
+    /**
+     * The moves are only legal if the position is a valid source position!
+     *
+     * @return    a list with all legal target positions from a selected position
+     */
+    public ArrayList<Position> getTarPositionitions(Position pos)
+    {
+        ArrayList<Position> target = new ArrayList<Position>();
+        ArrayList<Move> moves = this.getMoves(pos);
+        
+        if(this.containCap(moves))
+            moves = this.getCapMoves(moves);
+        
+        for(Move move : moves)
+        {
+            target.add(move.tar);
+        }
+        
+        return target;
+    }
+    
+    /**
+     * Access a postion on the board.
+     *
+     * @param pos   a position on the board
+     *
+     * @return    the piece on the board at the given position
+     */
+    public int getStone(Position pos)
+    {
+        if(pos.isValid())
+        {
+            if(pos.isDark())
+                return this.getStone(pos.getSquare());
+            else
+                return 0;
+        }
+        else
+        {
+            Error.send(false,"Can't find stone at Positionition "+pos.getString());
+            return -1;
+        }
+    }
+    
+    /**
+     * @param square    the index of a dark square (0..31)
+     *
+     * @return    the piece on the given square
+     */
+    public int getStone(int square)
+    {
+        int bit = 1<<square;
+        int king = (this.kings&bit)!=0?2:0;
+        if((this.black&bit)!=0)
+            return 1+king;
+        if((this.white&bit)!=0)
+            return 2+king;
+        return 0;
+    }
+    
+    /**
+     * @return    The number of the other player.
+     */
+    public static int otherPlayer(int player)
+    {
+        if(player==1)
+            return 2;
+        else
+            return 1;
+    }
+    
+    public State changeTurn()
+    {
+        this.hash ^= Zobrist.getTurn(this.turn);
+        this.turn=otherPlayer(this.turn);
+        this.hash ^= Zobrist.getTurn(this.turn);
+        this.moveNo++;
+        this.availableMoves = null;
+        return this;
+    }
+    
+    /**
+     * @return    To which player the stone belongs.
+     */
+    private static int getPlayer(int stone)
+    {
+        switch(stone)
+        {
+            case 0: return 0;
+            case 1: return 1;
+            case 2: return 2;
+            case 3: return 1;
+            case 4: return 2;
+            default: return 0;
+        }
+    }
+    
+    /**
+     * @return    To which player the stone at the given position belongs.
+     */
+    public int getPlayer(Position pos){ return getPlayer(this.getStone(pos)); }
+    
+    /**
+     * Move all bits one diagonal step into the given direction.
+     * Bits leaving the board are dropped.
+     */
+    private static int shift(int mask, int dir)
+    {
+        switch(dir)
+        {
+            case upLeft:    return ((mask&evenRows)>>>4)|((mask&oddRows&~leftColumn)>>>5);
+            case upRight:   return ((mask&evenRows&~rightColumn)>>>3)|((mask&oddRows)>>>4);
+            case downLeft:  return ((mask&evenRows)<<4)|((mask&oddRows&~leftColumn)<<3);
+            case downRight: return ((mask&evenRows&~rightColumn)<<5)|((mask&oddRows)<<4);
+            default: return 0;
+        }
+    }
+    
+    /**
+     * @return    the pieces of the selected stones which are allowed to step into the given direction
+     */
+    private int getMovers(int stones, int dir)
+    {
+        if(dir==upLeft||dir==upRight)
+            return stones&(this.black|this.kings);
+        else
+            return stones&(this.white|this.kings);
+    }
+    
+    /**
+     * @return    the pieces of the selected stones which can capture into the given direction
+     */
+    private int getJumpers(int stones, int dir)
+    {
+        int empty = ~(this.black|this.white);
+        int opponent = (stones&this.black)!=0?this.white:this.black;
+        int back = 3-dir;
+        return this.getMovers(stones,dir)&shift(shift(empty,back)&opponent,back);
+    }
+    
+    /**
+     * @return    the selected stones which can capture anything
+     */
+    private int getCaptures(int stones)
+    {
+        int black = stones&this.black;
+        int white = stones&this.white;
+        int captures = 0;
+        for(int dir=0;dir<4;dir++)
+            captures |= this.getJumpers(black,dir)|this.getJumpers(white,dir);
+        return captures;
+    }
+    
+    /**
+     * The moves are not necessarily legal in the current state of the game!
+     *
+     * @return    a list with all possible moves from the selected position.
+     */
+    public ArrayList<Move> getMoves(Position pos)
+    {
+        ArrayList<Move> moves = new ArrayList<Move>();
+        if(!pos.isDark())
+            return moves;
+        
+        int square = pos.getSquare();
+        int bit = 1<<square;
+        int empty = ~(this.black|this.white);
+        
+        // per direction either a normal move or a capturing move is possible
+        for(int dir=0;dir<4;dir++)
+        {
+            if(this.getMovers(bit,dir)==0)
+                continue;
+            int tar = shift(bit,dir);
+            if((tar&empty)!=0)
+                moves.add(Move.getMove(square,Integer.numberOfTrailingZeros(tar)));
+            else if(this.getJumpers(bit,dir)!=0)
+                moves.add(Move.getMove(square,Integer.numberOfTrailingZeros(shift(tar,dir))));
+        }
+        return moves;
+    }
+    
+    /**
+     * @return    a list with all stones of the selected player
+     */
+    public ArrayList<Position> getStones(int player)
+    {
+        ArrayList<Position> stones = new ArrayList<Position>();
+        int mask = player==1?this.black:player==2?this.white:~(this.black|this.white);
+        for(int square=0;square<32;square++)
+            if((mask&1<<square)!=0)
+                stones.add(Position.getPosition(square));
+        return stones;
+    }
+    
+    public String getBoardAsString()
+    {
+        String s = "#--------#";
+        for(int i=0; i<8; i++)
+        {
+            s += "\n|";
+            for(int j=0; j<8; j++)
+            {
+                Position pos = new Position(j,i);
+                int stone = this.getStone(pos);
+                switch(stone)
+                {
+                    case 0: s+="#";break;
+                    case 1: s+="x";break;
+                    case 2: s+="o";break;
+                    case 3: s+="X";break;
+                    case 4: s+="O";break;
+                }
+            }
+            s += "|";
+        }
+        return s + "\n#--------#";
+    }
+    
+    /**
+     * @return    true, if the selected moves contain a capturing move, otherwise false
+     */
+    private static boolean containCap(ArrayList<Move> moves)
+    {
+        for(Move move : moves)
+        {
+            if(move.isCap())
+                return true;
+        }
+        return false;
+    }
+    
+    /**
+     * @return    a list with all capturing moves from the input list
+     */
+    private static ArrayList<Move> getCapMoves(ArrayList<Move> moves)
+    {
+        ArrayList<Move> capMoves = new ArrayList<Move>();
+        for(Move move : moves)
+        {
+            if(move.isCap())
+                capMoves.add(move);
+        }
+        return capMoves;
+    }
+    
+    /**
+     * @return    the pieces which are allowed to move
+     */
+    private int getActiveStones()
+    {
+        if(this.lastHit>=0)
+            return 1<<this.lastHit;
+        else
+            return this.turn==1?this.black:this.white;
+    }
+    
+    /**
+     * @return    true, if there is at least one legal move, otherwise false
+     */
+    public boolean hasMoves()
+    {
+        int stones = this.getActiveStones();
+        int empty = ~(this.black|this.white);
+        for(int dir=0;dir<4;dir++)
+            if((this.getMovers(stones,dir)&shift(empty,3-dir))!=0||this.getJumpers(stones,dir)!=0)
+                return true;
+        return false;
+    }
+    
+    /**
+     * calculate all legal moves
+     *
+     * The movable pieces are found per direction with shifts of the bitboards,
+     * capturing moves are mandatory.
+     *
+     * @param moves     an array for at least maxMoves move codes
+     *
+     * @return    the number of moves written to the array
+     */
+    public int generateMoves(int[] moves)
+    {
+        int stones = this.getActiveStones();
+        int empty = ~(this.black|this.white);
+        int step = 2;
+        
+        int t0 = this.getJumpers(stones,upLeft);
+        int t1 = this.getJumpers(stones,upRight);
+        int t2 = this.getJumpers(stones,downLeft);
+        int t3 = this.getJumpers(stones,downRight);
+        
+        if((t0|t1|t2|t3)==0)
+        {
+            step = 1;
+            t0 = this.getMovers(stones,upLeft)&shift(empty,downRight);
+            t1 = this.getMovers(stones,upRight)&shift(empty,downLeft);
+            t2 = this.getMovers(stones,downLeft)&shift(empty,upRight);
+            t3 = this.getMovers(stones,downRight)&shift(empty,upLeft);
+        }
+        
+        // collect the moves square by square to keep the order of the board scan
+        int sources = t0|t1|t2|t3;
+        int count = 0;
+        while(sources!=0)
+        {
+            int bit = Integer.lowestOneBit(sources);
+            sources ^= bit;
+            if((t0&bit)!=0)
+                moves[count++] = getMoveCode(bit,upLeft,step);
+            if((t1&bit)!=0)
+                moves[count++] = getMoveCode(bit,upRight,step);
+            if((t2&bit)!=0)
+                moves[count++] = getMoveCode(bit,downLeft,step);
+            if((t3&bit)!=0)
+                moves[count++] = getMoveCode(bit,downRight,step);
+        }
+        return count;
+    }
+    
+    /**
+     * @return    the code of the move from the selected square over the given number of steps
+     */
+    private static int getMoveCode(int bit, int dir, int step)
+    {
+        int tar = shift(bit,dir);
+        if(step==2)
+            tar = shift(tar,dir);
+        return Move.getCode(Integer.numberOfTrailingZeros(bit),Integer.numberOfTrailingZeros(tar));
+    }
+    
+    /**
+     * calculate the list of all legal moves
+     */
+    private State calcAvailableMoves()
+    {
+        int[] codes = new int[maxMoves];
+        int count = this.generateMoves(codes);
+        
+        ArrayList<Move> moves = new ArrayList<Move>(count);
+        for(int i=0;i<count;i++)
+            moves.add(Move.getMove(codes[i]));
+        
+        this.availableMoves = moves;
+        return this;
+    }
+}
\ No newline at end of file
@@ -0,0 +1,284 @@
+package engine;
+
+import java.io.File;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.StandardOpenOption;
+
+/**
+ * The class Tablebase holds the results of all endgames with few pieces, which are created
+ * by the TablebaseGenerator. A search can stop as soon as it reaches such a position.
+ *
+ * There is one table per material signature (black men, black kings, white men, white kings)
+ * with one byte per position. The tables are memory-mapped, so the operating system only
+ * reads the parts of the files which are actually probed.
+ *
+ *  +d      .. the player to move wins after d turns
+ *  -(d+1)  .. the player to move loses after d turns
+ *  0       .. draw or no valid position
+ *
+ * A turn includes the whole capturing sequence, positions in the middle of a sequence are not stored.
+ * The index of a position is made up of the combinatorial ranks of the squares of each group
+ * of pieces and the player to move.
+ *
+ * @author  Lukas Gunthermann
+ * @version 1.0
+ */
+public class Tablebase
+{
+    /**
+     * The result of a probe if the position is not in the tablebase
+     */
+    public static final int unknown = Integer.MIN_VALUE;
+    
+    /**
+     * Tables with more pieces would not fit into one file
+     */
+    public static final int maxPieces = 6;
+    
+    private static final String defaultDirectory = "tablebase";
+    private static final String extension = ".tb";
+    private static final int signatures = 7*7*7*7;
+    
+    /**
+     * binomial[n][k] .. the number of ways to choose k of n squares
+     */
+    private static final int[][] binomial = new int[33][maxPieces+1];
+    static
+    {
+        for(int n=0;n<=32;n++)
+        {
+            binomial[n][0] = 1;
+            for(int k=1;k<=maxPieces;k++)
+                binomial[n][k] = n==0?0:binomial[n-1][k-1]+binomial[n-1][k];
+        }
+    }
+    
+    private static Tablebase defaultTablebase;
+    
+    private final ByteBuffer[] tables;
+    private volatile int pieces;
+    
+    /**
+     * @return    the most pieces of any table in the tablebase
+     */
+    public int getPieces(){ return this.pieces; }
+    public boolean contains(int signature){ return this.tables[signature]!=null; }
+    
+    /**
+     * The tables of the default directory are loaded when they are needed the first time.
+     *
+     * @return    the tablebase shared by all players
+     */
+    public static synchronized Tablebase getDefault()
+    {
+        if(defaultTablebase==null)
+            defaultTablebase = new Tablebase(new File(defaultDirectory));
+        return defaultTablebase;
+    }
+    
+    /**
+     * Constructor
+     *
+     * @param directory     the directory with the table files, it may be empty or missing
+     */
+    public Tablebase(File directory)
+    {
+        this.tables = new ByteBuffer[signatures];
+        this.pieces = 0;
+        File[] files = directory.listFiles();
+        if(files==null)
+            return;
+        for(File file : files)
+        {
+            int signature = getSignature(file.getName());
+            if(signature>=0)
+                this.load(signature,file);
+        }
+    }
+    
+    /**
+     * Map the table of a signature into memory. Not thread-safe, no search may probe the tablebase at the same time.
+     */
+    void load(int signature, File file)
+    {
+        try(FileChannel channel = FileChannel.open(file.toPath(),StandardOpenOption.READ))
+        {
+            if(channel.size()!=getSize(signature))
+            {
+                Error.send(false,"Tablebase file "+file.getName()+" has the wrong size");
+                return;
+            }
+            this.tables[signature] = channel.map(FileChannel.MapMode.READ_ONLY,0,channel.size());
+            this.pieces = Math.max(this.pieces,getPieceCount(signature));
+        }
+        catch(IOException e)
+        {
+            Error.send(false,"Can't read tablebase file "+file.getName()+"\n Error: "+e);
+        }
+    }
+    
+    /**
+     * @return    the value of the position, unknown if it is not in the tablebase
+     */
+    public int probe(State state)
+    {
+        if(state.getLastHit()>=0)
+            return unknown;
+        return this.probe(state.getBlack(),state.getWhite(),state.getKings(),state.getTurn());
+    }
+    
+    /**
+     * @return    the value of the position, unknown if it is not in the tablebase
+     */
+    public int probe(int black, int white, int kings, int turn)
+    {
+        if(Integer.bitCount(black|white)>this.pieces)
+            return unknown;
+        int signature = getSignature(black,white,kings);
+        if(signature<0||this.tables[signature]==null)
+            return unknown;
+        return this.tables[signature].get(getIndex(black,white,kings,turn));
+    }
+    
+    /**
+     * @return    the largest distance of any position in the table
+     */
+    int getMaxDistance(int signature)
+    {
+        ByteBuffer table = this.tables[signature];
+        int max = 0;
+        for(int i=0;table!=null&&i<table.capacity();i++)
+        {
+            int value = table.get(i);
+            max = Math.max(max,value>0?value:-value-1);
+        }
+        return max;
+    }
+    
+    /**
+     * @return    the signature of the given numbers of pieces, -1 if there is no table for them
+     */
+    public static int getSignature(int blackMen, int blackKings, int whiteMen, int whiteKings)
+    {
+        if(blackMen+blackKings+whiteMen+whiteKings>maxPieces)
+            return -1;
+        return ((blackMen*7+blackKings)*7+whiteMen)*7+whiteKings;
+    }
+    
+    public static int getSignature(int black, int white, int kings)
+    {
+        return getSignature(Integer.bitCount(black&~kings),Integer.bitCount(black&kings),
+            Integer.bitCount(white&~kings),Integer.bitCount(white&kings));
+    }
+    
+    /**
+     * @return    the signature of a table file, -1 if the file is no table
+     */
+    private static int getSignature(String fileName)
+    {
+        if(!fileName.matches("[0-6]{4}\\"+extension))
+            return -1;
+        int[] count = new int[4];
+        for(int i=0;i<4;i++)
+            count[i] = fileName.charAt(i)-'0';
+        return getSignature(count[0],count[1],count[2],count[3]);
+    }
+    
+    /**
+     * @return    the number of pieces of the group (0 .. black men, 1 .. black kings, 2 .. white men, 3 .. white kings)
+     */
+    public static int getCount(int signature, int group)
+    {
+        for(int i=group;i<3;i++)
+            signature /= 7;
+        return signature%7;
+    }
+    
+    public static int getPieceCount(int signature)
+    {
+        return getCount(signature,0)+getCount(signature,1)+getCount(signature,2)+getCount(signature,3);
+    }
+    
+    public static String getFileName(int signature)
+    {
+        return ""+getCount(signature,0)+getCount(signature,1)+getCount(signature,2)+getCount(signature,3)+extension;
+    }
+    
+    /**
+     * @return    the number of positions of the table, including the invalid ones
+     */
+    public static long getSize(int signature)
+    {
+        long size = 2;
+        for(int group=0;group<4;group++)
+            size *= binomial[32][getCount(signature,group)];
+        return size;
+    }
+    
+    /**
+     * The squares of each group are ranked in colexicographic order, the ranks and
+     * the player to move are combined into the index.
+     *
+     * @return    the index of the position in the table of its signature
+     */
+    public static int getIndex(int black, int white, int kings, int turn)
+    {
+        int[] groups = {black&~kings,black&kings,white&~kings,white&kings};
+        long index = 0;
+        for(int group : groups)
+            index = index*binomial[32][Integer.bitCount(group)]+rank(group);
+        return (int)(2*index+turn-1);
+    }
+    
+    /**
+     * Get the pieces of a position from its index.
+     *
+     * @return    {black, white, kings, turn}
+     */
+    public static int[] getPosition(int signature, int index)
+    {
+        int turn = index%2+1;
+        long rest = index/2;
+        int[] groups = new int[4];
+        for(int group=3;group>=0;group--)
+        {
+            int count = getCount(signature,group);
+            groups[group] = unrank((int)(rest%binomial[32][count]),count);
+            rest /= binomial[32][count];
+        }
+        return new int[]{groups[0]|groups[1],groups[2]|groups[3],groups[1]|groups[3],turn};
+    }
+    
+    /**
+     * @return    the colexicographic rank of the set squares of the mask
+     */
+    private static int rank(int mask)
+    {
+        int rank = 0;
+        for(int k=1;mask!=0;k++)
+        {
+            rank += binomial[Integer.numberOfTrailingZeros(mask)][k];
+            mask &= mask-1;
+        }
+        return rank;
+    }
+    
+    /**
+     * @return    the mask of the given number of squares with the given rank
+     */
+    private static int unrank(int rank, int count)
+    {
+        int mask = 0;
+        for(int k=count;k>0;k--)
+        {
+            int square = k-1;
+            while(binomial[square+1][k]<=rank)
+                square++;
+            rank -= binomial[square][k];
+            mask |= 1<<square;
+        }
+        return mask;
+    }
+}
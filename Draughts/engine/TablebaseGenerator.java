@@ -0,0 +1,328 @@
+package engine;
+
+import java.io.File;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.StandardCopyOption;
+import java.util.*;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.RecursiveAction;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * The class TablebaseGenerator solves all endgames up to a number of pieces and writes
+ * one table per material signature, see Tablebase.
+ *
+ * The signatures are solved in an order in which every move leads to a position of the same
+ * table or of a table which is already solved: fewer pieces first (captures) and fewer men first
+ * (promotions). Each table is solved in passes by the distance to the end of the game:
+ *
+ * even pass d .. a position is lost after d turns if every move leads to a position won after less than d turns
+ * odd pass d  .. a position is won after d turns if a move leads to a position lost after d-1 turns
+ *
+ * All positions which are still unknown when no more positions can be solved are draws.
+ * The passes are split over several threads. Every finished table is written to its own file,
+ * so an interrupted run continues with the first missing table.
+ *
+ * Usage: java engine.TablebaseGenerator [pieces] [directory] [threads]
+ *
+ * @author  Lukas Gunthermann
+ * @version 1.0
+ */
+public class TablebaseGenerator
+{
+    private final File directory;
+    private final Tablebase tablebase;
+    private final int threads;
+    private final ForkJoinPool pool;
+    
+    /**
+     * The largest distance of all finished tables, the passes can't end before it
+     */
+    private int maxDistance;
+    
+    /**
+     * The table which is currently solved
+     */
+    private int signature;
+    private byte[] table;
+    
+    private static final int maxPasses = 126;
+    private static final int tasksPerThread = 16;
+    
+    public static void main(String[] args)
+    {
+        int pieces = args.length>0?Integer.parseInt(args[0]):4;
+        File directory = new File(args.length>1?args[1]:"tablebase");
+        int threads = args.length>2?Integer.parseInt(args[2]):Runtime.getRuntime().availableProcessors();
+        
+        new TablebaseGenerator(directory,threads).generate(pieces);
+    }
+    
+    /**
+     * Constructor
+     *
+     * @param directory     the directory of the table files, existing tables are not generated again
+     * @param threads       the number of threads
+     */
+    public TablebaseGenerator(File directory, int threads)
+    {
+        this.directory = directory;
+        this.directory.mkdirs();
+        this.tablebase = new Tablebase(directory);
+        this.threads = Math.max(1,threads);
+        this.pool = new ForkJoinPool(this.threads);
+        this.maxDistance = 0;
+    }
+    
+    /**
+     * Generate all missing tables up to the given number of pieces.
+     */
+    public void generate(int pieces)
+    {
+        if(pieces>Tablebase.maxPieces)
+        {
+            Error.send(false,"Tablebases are limited to "+Tablebase.maxPieces+" pieces");
+            pieces = Tablebase.maxPieces;
+        }
+        for(int total=2;total<=pieces;total++)
+            for(int men=0;men<=total;men++)
+                for(int blackMen=0;blackMen<=men;blackMen++)
+                    for(int blackKings=0;blackKings<=total-men;blackKings++)
+                    {
+                        int whiteMen = men-blackMen;
+                        int whiteKings = total-men-blackKings;
+                        if(blackMen+blackKings>0&&whiteMen+whiteKings>0)
+                            this.generateTable(Tablebase.getSignature(blackMen,blackKings,whiteMen,whiteKings));
+                    }
+        this.pool.shutdown();
+    }
+    
+    /**
+     * Solve the table of a signature and write it to its file.
+     */
+    private void generateTable(int signature)
+    {
+        String name = Tablebase.getFileName(signature);
+        if(this.tablebase.contains(signature))
+        {
+            this.maxDistance = Math.max(this.maxDistance,this.tablebase.getMaxDistance(signature));
+            System.out.println(name+" exists");
+            return;
+        }
+        
+        long startTime = System.nanoTime();
+        this.signature = signature;
+        this.table = new byte[(int)Tablebase.getSize(signature)];
+        int lastDistance = 0;
+        int quiet = 0;
+        for(int distance=0;distance<=maxPasses;distance++)
+        {
+            int solved = this.runPass(distance);
+            if(solved>0)
+            {
+                lastDistance = distance;
+                quiet = 0;
+            }
+            else if(++quiet>=2&&distance>this.maxDistance)
+                break;
+            if(distance==maxPasses&&solved>0)
+                Error.send(false,"Table "+name+" is not complete, remaining positions are draws");
+        }
+        this.maxDistance = Math.max(this.maxDistance,lastDistance);
+        
+        File file = new File(this.directory,name);
+        if(this.write(file))
+            this.tablebase.load(signature,file);
+        System.out.println(name+" "+this.getSummary()+", longest game "+lastDistance+" turns, "
+            +(System.nanoTime()-startTime)/1000000+"ms");
+        this.table = null;
+    }
+    
+    /**
+     * @return    the number of positions solved in the pass
+     */
+    private int runPass(int distance)
+    {
+        AtomicInteger solved = new AtomicInteger();
+        int tasks = this.threads*tasksPerThread;
+        long size = this.table.length;
+        ArrayList<RecursiveAction> actions = new ArrayList<RecursiveAction>();
+        for(int i=0;i<tasks;i++)
+        {
+            int from = (int)(size*i/tasks);
+            int to = (int)(size*(i+1)/tasks);
+            actions.add(new RecursiveAction()
+            {
+                @Override
+                protected void compute()
+                {
+                    solved.addAndGet(new Pass(distance).run(from,to));
+                }
+            });
+        }
+        this.pool.invoke(new RecursiveAction()
+        {
+            @Override
+            protected void compute()
+            {
+                invokeAll(actions);
+            }
+        });
+        return solved.get();
+    }
+    
+    /**
+     * Write the table to a temporary file first, so that a table file is always complete.
+     *
+     * @return    true, if the file was written, otherwise false
+     */
+    private boolean write(File file)
+    {
+        File temp = new File(this.directory,file.getName()+".tmp");
+        try(FileOutputStream out = new FileOutputStream(temp))
+        {
+            out.write(this.table);
+        }
+        catch(IOException e)
+        {
+            Error.send(false,"Can't write tablebase file "+temp.getName()+"\n Error: "+e);
+            return false;
+        }
+        try
+        {
+            Files.move(temp.toPath(),file.toPath(),StandardCopyOption.REPLACE_EXISTING,StandardCopyOption.ATOMIC_MOVE);
+            return true;
+        }
+        catch(IOException e)
+        {
+            Error.send(false,"Can't rename tablebase file "+temp.getName()+"\n Error: "+e);
+            return false;
+        }
+    }
+    
+    private String getSummary()
+    {
+        long wins = 0;
+        long losses = 0;
+        for(byte value : this.table)
+        {
+            if(value>0)
+                wins++;
+            else if(value<0)
+                losses++;
+        }
+        return wins+" wins, "+losses+" losses";
+    }
+    
+    /**
+     * One thread of a pass with its own state and move buffers.
+     */
+    private class Pass
+    {
+        private final int distance;
+        private final State state;
+        private final int[][] moves;
+        
+        Pass(int distance)
+        {
+            this.distance = distance;
+            this.state = new State(0,0,0,1);
+            this.moves = new int[16][State.maxMoves];
+        }
+        
+        /**
+         * @return    the number of positions solved between the two indices
+         */
+        int run(int from, int to)
+        {
+            byte[] table = TablebaseGenerator.this.table;
+            boolean win = this.distance%2==1;
+            int pieces = Tablebase.getPieceCount(TablebaseGenerator.this.signature);
+            int solved = 0;
+            for(int index=from;index<to;index++)
+            {
+                if(table[index]!=0)
+                    continue;
+                int[] position = Tablebase.getPosition(TablebaseGenerator.this.signature,index);
+                if(!isValid(position[0],position[1],position[2],pieces))
+                    continue;
+                this.state.setPosition(position[0],position[1],position[2],position[3]);
+                if(this.isSolved(0,win))
+                {
+                    table[index] = (byte)(win?this.distance:-this.distance-1);
+                    solved++;
+                }
+            }
+            return solved;
+        }
+        
+        /**
+         * The moves of a capturing sequence are followed until the turn ends.
+         *
+         * @param win   whether the pass looks for won or for lost positions
+         *
+         * @return    true, if the position is won or lost after the distance of the pass
+         */
+        private boolean isSolved(int depth, boolean win)
+        {
+            State state = this.state;
+            int[] moves = this.moves[depth];
+            int count = state.generateMoves(moves);
+            for(int i=0;i<count;i++)
+            {
+                state.doMove(moves[i]);
+                boolean result;
+                if(state.getLastHit()>=0)
+                {
+                    result = this.isSolved(depth+1,win);
+                }
+                else
+                {
+                    int value = this.getValue();
+                    if(win)
+                        result = value==-this.distance;
+                    else
+                        result = value>0&&value<this.distance;
+                }
+                state.undoMove();
+                if(win&&result)
+                    return true;
+                if(!win&&!result)
+                    return false;
+            }
+            return !win;
+        }
+        
+        /**
+         * @return    the value of the state after a move, 0 if it is not known yet
+         */
+        private int getValue()
+        {
+            State state = this.state;
+            int black = state.getBlack();
+            int white = state.getWhite();
+            int kings = state.getKings();
+            int turn = state.getTurn();
+            
+            // the player can't move without pieces
+            if((turn==1?black:white)==0)
+                return -1;
+            if(Tablebase.getSignature(black,white,kings)==TablebaseGenerator.this.signature)
+                return TablebaseGenerator.this.table[Tablebase.getIndex(black,white,kings,turn)];
+            int value = TablebaseGenerator.this.tablebase.probe(black,white,kings,turn);
+            return value==Tablebase.unknown?0:value;
+        }
+    }
+    
+    /**
+     * @return    true, if no pieces share a square and no man stands on its promotion row
+     */
+    private static boolean isValid(int black, int white, int kings, int pieces)
+    {
+        if((black&white)!=0||Integer.bitCount(black|white)!=pieces)
+            return false;
+        return (black&~kings&0x0000000F)==0&&(white&~kings&0xF0000000)==0;
+    }
+}
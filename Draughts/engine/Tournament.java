@@ -0,0 +1,512 @@
+package engine;
+
+import java.io.*;
+import java.util.*;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.RecursiveAction;
+import java.util.function.Consumer;
+
+/**
+ * The class Tournament lets computer players play many games against each other without
+ * a user interface. Every player plays against every other player and the games run concurrently.
+ *
+ * The games are played in pairs: both games of a pair start with the same random opening
+ * and the players swap their colours, so that an unbalanced opening favours nobody.
+ * A game which reaches the maximum number of plies is a draw.
+ *
+ * A player is written as name:option=value,option=value with the options difficulty, depth,
+ * time (ms), nodes, threads, hash (MB) and book, tablebase, ordering, pvs, quiescence (on or off):
+ *
+ *   java engine.Tournament -games 200 Depth4:depth=4,book=off Depth6:depth=6,book=off
+ *
+ * Usage: java engine.Tournament [-games n] [-threads n] [-plies n] [-random n] [-seed n] [-out file] [-record file] player player [...]
+ *
+ * -games n     games of each pairing, it is rounded up to an even number
+ * -threads n   games played at the same time, one per processor by default
+ * -plies n     maximum length of a game
+ * -random n    random plies of each opening
+ * -out file    write the results table to the file as well
+ * -record file append all games with the statistics of their moves to a GameArchive
+ *
+ * @author  Lukas Gunthermann
+ * @version 1.0
+ */
+public class Tournament
+{
+    private final ArrayList<Player> players;
+    private final ArrayList<Result> results;
+    private int games;
+    private int threads;
+    private int maxPlies;
+    private int randomPlies;
+    private long seed;
+    private int played;
+    private volatile boolean stopped;
+    
+    /**
+     * The archive of the played games, null if they are not recorded
+     */
+    private GameArchiveWriter archive;
+    
+    /**
+     * Called after every finished game
+     */
+    private Consumer<Tournament> listener;
+    
+    /**
+     * The tables of the players, every thread of the pool reuses them for all its games
+     */
+    private final ThreadLocal<Tables> tables;
+    
+    public static final int defaultGames = 100;
+    public static final int defaultRandomPlies = 4;
+    
+    public int getPlayerCount(){ return this.players.size(); }
+    public Player getPlayer(int i){ return this.players.get(i); }
+    public Result getResult(int i){ return this.results.get(i); }
+    public synchronized int getPlayed(){ return this.played; }
+    public int getGames(){ return this.games; }
+    public void setGames(int games){ this.games = Math.max(2,games+games%2); }
+    public void setThreads(int threads){ this.threads = Math.max(1,threads); }
+    public void setMaxPlies(int plies){ this.maxPlies = Math.max(1,plies); }
+    public void setRandomPlies(int plies){ this.randomPlies = Math.max(0,plies); }
+    public void setSeed(long seed){ this.seed = seed; }
+    public void setListener(Consumer<Tournament> listener){ this.listener = listener; }
+    public void setArchive(GameArchiveWriter archive){ this.archive = archive; }
+    
+    public static void main(String[] args)
+    {
+        Tournament tournament = parse(args,"-out","-record");
+        if(tournament==null||tournament.getPlayerCount()<2)
+        {
+            System.out.println("Usage: java engine.Tournament [-games n] [-threads n] [-plies n] [-random n] [-seed n] [-out file] [-record file] player player [...]");
+            return;
+        }
+        int total = tournament.getGames()*tournament.getPlayerCount()*(tournament.getPlayerCount()-1)/2;
+        tournament.setListener(t -> System.out.println("game "+t.getPlayed()+"/"+total));
+        String record = getOption(args,"-record");
+        if(record!=null)
+        {
+            try(GameArchiveWriter archive = new GameArchiveWriter(new File(record)))
+            {
+                tournament.setArchive(archive);
+                tournament.run();
+            }
+            catch(IOException e)
+            {
+                Error.send(false,"Can't write games to "+record+"\n Error: "+e);
+                return;
+            }
+        }
+        else
+            tournament.run();
+        
+        String table = tournament.getTable();
+        System.out.print(table);
+        String file = getOption(args,"-out");
+        if(file!=null)
+        {
+            try(FileWriter writer = new FileWriter(file))
+            {
+                writer.write(table);
+            }
+            catch(IOException e)
+            {
+                Error.send(false,"Can't write results to "+file+"\n Error: "+e);
+            }
+        }
+    }
+    
+    /**
+     * Read the options and players of the command line, see the description of the class.
+     * Every argument which doesn't start with - is a player.
+     *
+     * @param options   the options with a value which are read by the caller, e.g. -out
+     * @return    the tournament, null if the command line is not valid
+     */
+    public static Tournament parse(String[] args, String... options)
+    {
+        Tournament tournament = new Tournament();
+        try
+        {
+            for(int i=0;i<args.length;i++)
+            {
+                switch(args[i])
+                {
+                    case "-games": tournament.setGames(Integer.parseInt(args[++i])); break;
+                    case "-threads": tournament.setThreads(Integer.parseInt(args[++i])); break;
+                    case "-plies": tournament.setMaxPlies(Integer.parseInt(args[++i])); break;
+                    case "-random": tournament.setRandomPlies(Integer.parseInt(args[++i])); break;
+                    case "-seed": tournament.setSeed(Long.parseLong(args[++i])); break;
+                    default:
+                        if(Arrays.asList(options).contains(args[i]))
+                        {
+                            i++;
+                            break;
+                        }
+                        if(args[i].startsWith("-"))
+                        {
+                            Error.send(false,"Unknown option "+args[i]);
+                            return null;
+                        }
+                        Player player = parsePlayer(args[i]);
+                        if(player==null)
+                            return null;
+                        tournament.addPlayer(player);
+                }
+            }
+        }
+        catch(NumberFormatException|ArrayIndexOutOfBoundsException e)
+        {
+            Error.send(false,"Can't read the command line\n Error: "+e);
+            return null;
+        }
+        return tournament;
+    }
+    
+    /**
+     * @return    the value after an option of the command line, null if the option is missing
+     */
+    static String getOption(String[] args, String option)
+    {
+        for(int i=0;i+1<args.length;i++)
+            if(args[i].equals(option))
+                return args[i+1];
+        return null;
+    }
+    
+    /**
+     * Create a computer player from its description name:option=value,..., see the description of the class.
+     * The first moves of the player are not random, the tournament chooses the openings.
+     *
+     * @return    the player, null if the description is not valid
+     */
+    public static Player parsePlayer(String description)
+    {
+        String[] parts = description.split(":",2);
+        String name = parts[0];
+        String[] options = parts.length<2||parts[1].isEmpty()?new String[0]:parts[1].split(",");
+        try
+        {
+            // the difficulty can only be set by the constructor
+            int difficulty = 2;
+            for(String option : options)
+                if(option.startsWith("difficulty="))
+                    difficulty = Integer.parseInt(option.substring(option.indexOf('=')+1));
+            Player player = new Player(name,false,difficulty);
+            player.setRandomOpening(false);
+            
+            for(String option : options)
+            {
+                String[] pair = option.split("=",2);
+                String value = pair.length<2?"":pair[1];
+                boolean on = value.equals("on");
+                switch(pair[0])
+                {
+                    case "difficulty": break;
+                    case "depth": player.setMaxDepth(Integer.parseInt(value)); break;
+                    case "time": player.setTimeBudget(Long.parseLong(value)); break;
+                    case "nodes": player.setNodeBudget(Long.parseLong(value)); break;
+                    case "threads": player.setThreads(Integer.parseInt(value)); break;
+                    case "hash": player.setTableSize(Integer.parseInt(value)); break;
+                    case "book": player.setOpeningBook(on?OpeningBook.getDefault():null); break;
+                    case "tablebase": player.setTablebase(on?Tablebase.getDefault():null); break;
+                    case "ordering": player.setMoveOrdering(on); break;
+                    case "pvs": player.setPrincipalVariation(on); break;
+                    case "quiescence": player.setQuiescence(on); break;
+                    default:
+                        Error.send(false,"Unknown option \""+option+"\" of player "+name);
+                        return null;
+                }
+            }
+            return player;
+        }
+        catch(NumberFormatException e)
+        {
+            Error.send(false,"Can't read player "+description+"\n Error: "+e);
+            return null;
+        }
+    }
+    
+    /**
+     * Constructor
+     */
+    public Tournament()
+    {
+        this.players = new ArrayList<Player>();
+        this.results = new ArrayList<Result>();
+        this.games = defaultGames;
+        this.threads = Runtime.getRuntime().availableProcessors();
+        this.maxPlies = Game.defaultMaxPlies;
+        this.randomPlies = defaultRandomPlies;
+        this.seed = 2019;
+        this.played = 0;
+        this.stopped = false;
+        this.listener = null;
+        this.archive = null;
+        this.tables = ThreadLocal.withInitial(Tables::new);
+    }
+    
+    /**
+     * @param player    the settings of a player, every game gets its own copy
+     */
+    public void addPlayer(Player player)
+    {
+        this.players.add(player);
+        this.results.add(new Result(player.getName()));
+    }
+    
+    /**
+     * Don't start any more games, the running games are finished.
+     */
+    public void stop()
+    {
+        this.stopped = true;
+    }
+    
+    /**
+     * Play all pairings, every pair of games is a task of the thread pool.
+     */
+    public void run()
+    {
+        ArrayList<RecursiveAction> tasks = new ArrayList<RecursiveAction>();
+        int pair = 0;
+        for(int i=0;i<this.players.size();i++)
+            for(int j=i+1;j<this.players.size();j++)
+                for(int k=0;k<this.games/2;k++)
+                {
+                    int first = i;
+                    int second = j;
+                    long seed = this.seed+pair++;
+                    tasks.add(new RecursiveAction()
+                    {
+                        @Override
+                        protected void compute()
+                        {
+                            List<Move> opening = Tournament.this.getOpening(new Random(seed));
+                            Tournament.this.playGame(first,second,opening);
+                            Tournament.this.playGame(second,first,opening);
+                        }
+                    });
+                }
+        
+        ForkJoinPool pool = new ForkJoinPool(this.threads);
+        pool.invoke(new RecursiveAction()
+        {
+            @Override
+            protected void compute()
+            {
+                invokeAll(tasks);
+            }
+        });
+        pool.shutdown();
+    }
+    
+    /**
+     * @return    random moves from the initial state, which don't end the game
+     */
+    private List<Move> getOpening(Random random)
+    {
+        State state = new State();
+        ArrayList<Move> moves = new ArrayList<Move>();
+        while(moves.size()<this.randomPlies)
+        {
+            ArrayList<Move> available = state.getAvailableMoves();
+            Move move = available.get(random.nextInt(available.size()));
+            state.move(move);
+            moves.add(move);
+            if(state.isOver())
+                return this.getOpening(random);
+        }
+        return moves;
+    }
+    
+    /**
+     * Play one game with new copies of both players, they use the cleared tables of the thread.
+     *
+     * @param black     the index of the player who moves first
+     * @param white     the index of the second player
+     */
+    private void playGame(int black, int white, List<Move> opening)
+    {
+        if(this.stopped)
+            return;
+        int[] index = {black,white};
+        Player[] copies = new Player[2];
+        for(int i=0;i<2;i++)
+        {
+            copies[i] = new Player(this.players.get(index[i]));
+            this.tables.get().use(i,copies[i]);
+        }
+        Game game = new Game(copies[0],copies[1]);
+        game.setMaxPlies(this.maxPlies);
+        for(Move move : opening)
+            game.move(move);
+        
+        long[] moves = new long[2];
+        long[] nodes = new long[2];
+        long[] time = new long[2];
+        
+        // the statistics of each move for the archive, moves of the opening have none
+        int[] moveScores = new int[this.maxPlies];
+        long[] moveNodes = new long[this.maxPlies];
+        int[] moveTimes = new int[this.maxPlies];
+        while(!game.isOver())
+        {
+            int turn = game.getTurn();
+            Player player = game.getPlayer(turn);
+            long startTime = System.nanoTime();
+            Move move = game.requestMove();
+            long endTime = System.nanoTime();
+            if(move==null||!game.move(move))
+            {
+                Error.send(false,"Player "+player.getName()+" didn't move, the game is a draw");
+                break;
+            }
+            // only searched moves count, not the moves of the book
+            if(player.getDepthReached()>0)
+            {
+                moves[turn-1]++;
+                nodes[turn-1] += player.getExploredNodes();
+                time[turn-1] += endTime-startTime;
+                int ply = game.getMoves().size()-1;
+                moveScores[ply] = player.getScore();
+                moveNodes[ply] = player.getExploredNodes();
+                moveTimes[ply] = (int)((endTime-startTime)/1000000);
+            }
+        }
+        game.getPlayer(1).release();
+        game.getPlayer(2).release();
+        if(this.archive!=null)
+        {
+            try
+            {
+                this.archive.write(game,moveScores,moveNodes,moveTimes);
+            }
+            catch(IOException e)
+            {
+                Error.send(false,"Can't write game to the archive\n Error: "+e);
+            }
+        }
+        
+        int winner = game.getWinner();
+        synchronized(this)
+        {
+            for(int i=0;i<2;i++)
+            {
+                int score = winner==0?1:winner==i+1?2:0;
+                this.results.get(index[i]).add(score,moves[i],nodes[i],time[i]);
+            }
+            this.played++;
+        }
+        if(this.listener!=null)
+            this.listener.accept(this);
+    }
+    
+    /**
+     * @return    the results of all players as a table
+     */
+    public synchronized String getTable()
+    {
+        StringBuilder table = new StringBuilder();
+        table.append(String.format("%-16s %6s %6s %6s %6s %7s %12s %9s%n",
+            "player","games","wins","losses","draws","score","nodes/move","ms/move"));
+        for(Result result : this.results)
+            table.append(result.getString()).append(System.lineSeparator());
+        return table.toString();
+    }
+    
+    /**
+     * The transposition tables and evaluation caches of both players of a game. A new game
+     * clears them instead of creating new ones, unless the size of a player is different.
+     */
+    private static class Tables
+    {
+        private final TranspositionTable[] tables = new TranspositionTable[2];
+        private final EvaluationCache[] caches = new EvaluationCache[2];
+        private final int[] tableSizes = new int[2];
+        private final int[] cacheSizes = new int[2];
+        
+        /**
+         * @param i     0 for the player who moves first, 1 for the second player
+         */
+        void use(int i, Player player)
+        {
+            if(this.tables[i]==null||this.tableSizes[i]!=player.getTableSize())
+            {
+                this.tables[i] = new TranspositionTable(player.getTableSize());
+                this.tableSizes[i] = player.getTableSize();
+            }
+            else
+                this.tables[i].clear();
+            if(this.caches[i]==null||this.cacheSizes[i]!=player.getCacheSize())
+            {
+                this.caches[i] = new EvaluationCache(player.getCacheSize());
+                this.cacheSizes[i] = player.getCacheSize();
+            }
+            else
+                this.caches[i].clear();
+            player.setTable(this.tables[i]);
+            player.setEvaluationCache(this.caches[i]);
+        }
+    }
+    
+    /**
+     * The results of one player in all its games.
+     */
+    public static class Result
+    {
+        private final String name;
+        private int wins;
+        private int losses;
+        private int draws;
+        private long moves;
+        private long nodes;
+        private long time;
+        
+        Result(String name)
+        {
+            this.name = name;
+        }
+        
+        public synchronized int getWins(){ return this.wins; }
+        public synchronized int getLosses(){ return this.losses; }
+        public synchronized int getDraws(){ return this.draws; }
+        public synchronized int getGames(){ return this.wins+this.losses+this.draws; }
+        
+        /**
+         * @param score     2 for a win, 1 for a draw and 0 for a loss
+         * @param time      the time of all searched moves in ns
+         */
+        synchronized void add(int score, long moves, long nodes, long time)
+        {
+            if(score==2)
+                this.wins++;
+            else if(score==1)
+                this.draws++;
+            else
+                this.losses++;
+            this.moves += moves;
+            this.nodes += nodes;
+            this.time += time;
+        }
+        
+        /**
+         * @return    the share of the possible points, a draw is half a point
+         */
+        public synchronized double getScore()
+        {
+            int games = this.getGames();
+            return games==0?0:(this.wins+0.5*this.draws)/games;
+        }
+        
+        public synchronized double getNodesPerMove(){ return this.moves==0?0:(double)this.nodes/this.moves; }
+        public synchronized double getTimePerMove(){ return this.moves==0?0:this.time/1e6/this.moves; }
+        
+        public synchronized String getString()
+        {
+            return String.format("%-16s %6d %6d %6d %6d %6.1f%% %12.0f %9.1f",this.name,this.getGames(),
+                this.wins,this.losses,this.draws,100*this.getScore(),this.getNodesPerMove(),this.getTimePerMove());
+        }
+    }
+}
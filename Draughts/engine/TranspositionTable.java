@@ -0,0 +1,157 @@
+package engine;
+
+import java.util.concurrent.atomic.AtomicLongArray;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * The class TranspositionTable stores the results of searched positions,
+ * so that positions reached by different move orders are only searched once.
+ *
+ * The table is a fixed-size array of entries with two longs each, the hash of the
+ * position XOR the packed data and the packed data itself:
+ *
+ * bits  0..31 .. score
+ * bits 32..39 .. remaining search depth
+ * bits 40..41 .. bound (exact, lower or upper)
+ * bits 42..51 .. move code of the best move
+ * bits 52..57 .. search depth of the iteration which stored the entry
+ * bits 58..63 .. age of the search which stored the entry
+ *
+ * The table is shared by all search threads without locks. Two threads may write the
+ * same entry at the same time, but an entry whose two halves belong to different writes
+ * fails the XOR check of the hash and is treated as empty.
+ *
+ * @author  Lukas Gunthermann
+ * @version 1.0
+ */
+public class TranspositionTable
+{
+    public static final int exact = 1;
+    public static final int lower = 2;
+    public static final int upper = 3;
+    
+    private final AtomicLongArray table;
+    private final int mask;
+    private volatile int age;
+    
+    private final LongAdder hits;
+    private final LongAdder misses;
+    
+    public int getSize(){ return this.table.length()/2; }
+    public long getHits(){ return this.hits.sum(); }
+    public long getMisses(){ return this.misses.sum(); }
+    
+    /**
+     * Constructor
+     *
+     * @param megabytes     the size of the table, it is rounded down to a power of two entries
+     */
+    public TranspositionTable(int megabytes)
+    {
+        long entries = ((long)megabytes<<20)/16;
+        int size = Math.max(1,Integer.highestOneBit((int)Math.min(entries,1<<28)));
+        this.table = new AtomicLongArray(2*size);
+        this.mask = size-1;
+        this.age = 0;
+        this.hits = new LongAdder();
+        this.misses = new LongAdder();
+    }
+    
+    /**
+     * Start a new search, entries of older searches are replaced first.
+     */
+    public void newSearch()
+    {
+        this.age = (this.age+1)&0x3F;
+    }
+    
+    /**
+     * @return    true, if the entry was stored by the current search in the given iteration, otherwise false
+     */
+    public boolean isCurrent(long data, int iteration)
+    {
+        return getAge(data)==this.age&&getIteration(data)==(iteration&0x3F);
+    }
+    
+    /**
+     * Not thread-safe, the table must not be used by a search at the same time.
+     */
+    public void clear()
+    {
+        for(int i=0;i<this.table.length();i++)
+            this.table.setOpaque(i,0L);
+        this.hits.reset();
+        this.misses.reset();
+    }
+    
+    /**
+     * @return    the packed data of the position, 0 if it is not in the table
+     */
+    public long probe(long hash)
+    {
+        long data = this.peek(hash);
+        if(data!=0)
+            this.hits.increment();
+        else
+            this.misses.increment();
+        return data;
+    }
+    
+    /**
+     * Like probe, but the hits and misses aren't counted, e.g. to read the principal variation.
+     *
+     * @return    the packed data of the position, 0 if it is not in the table
+     */
+    public long peek(long hash)
+    {
+        int index = 2*((int)hash&this.mask);
+        long data = this.table.getOpaque(index+1);
+        long key = this.table.getOpaque(index);
+        if(data!=0&&(key^data)==hash)
+            return data;
+        return 0;
+    }
+    
+    /**
+     * An entry is replaced by a different position only if it is not deeper or from an older search.
+     */
+    public void store(long hash, int depth, int bound, int score, int move, int iteration)
+    {
+        int index = 2*((int)hash&this.mask);
+        long old = this.table.getOpaque(index+1);
+        long oldKey = this.table.getOpaque(index);
+        if(old!=0&&(oldKey^old)!=hash&&getAge(old)==this.age&&getDepth(old)>depth)
+            return;
+        long data = pack(depth,bound,score,move,iteration,this.age);
+        this.table.setOpaque(index,hash^data);
+        this.table.setOpaque(index+1,data);
+    }
+    
+    private static long pack(int depth, int bound, int score, int move, int iteration, int age)
+    {
+        return (score&0xFFFFFFFFL)|(long)(depth&0xFF)<<32|(long)bound<<40|(long)(move&0x3FF)<<42
+            |(long)(iteration&0x3F)<<52|(long)age<<58;
+    }
+    
+    public static int getScore(long data){ return (int)data; }
+    public static int getDepth(long data){ return (int)(data>>>32)&0xFF; }
+    public static int getBound(long data){ return (int)(data>>>40)&0x3; }
+    public static int getMove(long data){ return (int)(data>>>42)&0x3FF; }
+    private static int getIteration(long data){ return (int)(data>>>52)&0x3F; }
+    private static int getAge(long data){ return (int)(data>>>58)&0x3F; }
+    
+    /**
+     * @return    the share of probes which found their position
+     */
+    public double getHitRate()
+    {
+        long hits = this.getHits();
+        long probes = hits+this.getMisses();
+        return probes==0?0.0:(double)hits/probes;
+    }
+    
+    public String getString()
+    {
+        return "TT "+this.getHits()+" hits / "+this.getMisses()+" misses ("+Math.round(100*this.getHitRate())+"%)";
+    }
+}
@@ -0,0 +1,64 @@
+package engine;
+
+import java.util.Random;
+
+/**
+ * The class Zobrist holds the random keys to hash a game state.
+ * The hash of a state is the XOR of the keys of all pieces on their squares,
+ * the key of the player to move (only for white) and the key of the lastHit square.
+ *
+ * The keys are created with a fixed seed, so that a hash is the same in every run.
+ *
+ * @author  Lukas Gunthermann
+ * @version 1.0
+ */
+public class Zobrist
+{
+    private static final long[][] pieces = new long[5][32];
+    private static final long[] lastHit = new long[32];
+    private static final long turn;
+
+    static
+    {
+        Random random = new Random(0x5EED_D7A6L);
+        for(int stone=1;stone<=4;stone++)
+            for(int square=0;square<32;square++)
+                pieces[stone][square] = random.nextLong();
+        for(int square=0;square<32;square++)
+            lastHit[square] = random.nextLong();
+        turn = random.nextLong();
+    }
+
+    /**
+     * @param stone     the piece 1..4
+     * @param square    the index of a dark square (0..31)
+     */
+    public static long getPiece(int stone, int square){ return pieces[stone][square]; }
+
+    /**
+     * @param square    the square of the capturing piece, -1 if there is no capturing sequence
+     */
+    public static long getLastHit(int square){ return square<0?0:lastHit[square]; }
+
+    /**
+     * @param player    the player to move
+     */
+    public static long getTurn(int player){ return player==2?turn:0; }
+
+    /**
+     * Calculate the hash of a state from scratch.
+     *
+     * @return    the hash of the state
+     */
+    public static long hash(State state)
+    {
+        long hash = getTurn(state.getTurn())^getLastHit(state.getLastHit());
+        for(int square=0;square<32;square++)
+        {
+            int stone = state.getStone(square);
+            if(stone!=0)
+                hash ^= getPiece(stone,square);
+        }
+        return hash;
+    }
+}
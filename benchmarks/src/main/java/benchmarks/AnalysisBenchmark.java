@@ -0,0 +1,47 @@
+package benchmarks;
+
+import java.util.concurrent.TimeUnit;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.Warmup;
+import engine.Analysis;
+import engine.State;
+
+/**
+ * The class AnalysisBenchmark measures the static evaluation of a position without the cache.
+ *
+ * @author  Lukas Gunthermann
+ * @version 1.0
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+@org.openjdk.jmh.annotations.State(Scope.Thread)
+public class AnalysisBenchmark
+{
+    @Param({"opening", "middlegame", "endgame"})
+    public String position;
+    
+    private State state;
+    
+    @Setup
+    public void setup()
+    {
+        this.state = BenchmarkPositions.get(this.position);
+    }
+    
+    @Benchmark
+    public int evaluate()
+    {
+        return Analysis.evaluate(this.state);
+    }
+}
@@ -0,0 +1,47 @@
+package benchmarks;
+
+import java.util.*;
+import engine.Move;
+import engine.State;
+
+/**
+ * The class BenchmarkPositions creates the positions of the benchmarks.
+ * All positions are reached by random moves with a fixed seed from the initial state,
+ * so that every run measures the same positions.
+ *
+ * @author  Lukas Gunthermann
+ * @version 1.0
+ */
+public class BenchmarkPositions
+{
+    public static final long seed = 2019;
+    
+    /**
+     * @param name  opening, middlegame or endgame
+     */
+    public static State get(String name)
+    {
+        switch(name)
+        {
+            case "opening": return play(8);
+            case "middlegame": return play(27);
+            case "endgame": return play(39);
+            default: throw new IllegalArgumentException("Unknown position "+name);
+        }
+    }
+    
+    /**
+     * @return    the state after the given number of random moves from the initial state
+     */
+    private static State play(int moves)
+    {
+        Random random = new Random(seed);
+        State state = new State();
+        for(int i=0;i<moves&&!state.isOver();i++)
+        {
+            ArrayList<Move> available = state.getAvailableMoves();
+            state.move(available.get(random.nextInt(available.size())));
+        }
+        return state;
+    }
+}
@@ -0,0 +1,30 @@
+package benchmarks;
+
+import org.openjdk.jmh.profile.GCProfiler;
+import org.openjdk.jmh.runner.Runner;
+import org.openjdk.jmh.runner.RunnerException;
+import org.openjdk.jmh.runner.options.CommandLineOptionException;
+import org.openjdk.jmh.runner.options.CommandLineOptions;
+import org.openjdk.jmh.runner.options.Options;
+import org.openjdk.jmh.runner.options.OptionsBuilder;
+
+/**
+ * The class Benchmarks runs the JMH benchmarks with the usual command line options of JMH.
+ * The GC profiler is always added, so that every result includes the allocation rate.
+ *
+ * Usage: java -jar target/benchmarks.jar [JMH options] [benchmark patterns]
+ *
+ * @author  Lukas Gunthermann
+ * @version 1.0
+ */
+public class Benchmarks
+{
+    public static void main(String[] args) throws RunnerException, CommandLineOptionException
+    {
+        Options options = new OptionsBuilder()
+            .parent(new CommandLineOptions(args))
+            .addProfiler(GCProfiler.class)
+            .build();
+        new Runner(options).run();
+    }
+}
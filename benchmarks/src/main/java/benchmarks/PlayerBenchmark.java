@@ -0,0 +1,68 @@
+package benchmarks;
+
+import java.util.concurrent.TimeUnit;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.Warmup;
+import engine.Move;
+import engine.Player;
+import engine.State;
+
+/**
+ * The class PlayerBenchmark measures the search of a computer player to a fixed depth.
+ * The time budget is unlimited, the opening book and the tablebase are switched off and
+ * the transposition table and the evaluation cache are cleared before every search,
+ * so that every search explores the same nodes.
+ *
+ * @author  Lukas Gunthermann
+ * @version 1.0
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+@org.openjdk.jmh.annotations.State(Scope.Thread)
+public class PlayerBenchmark
+{
+    @Param({"opening", "middlegame", "endgame"})
+    public String position;
+    
+    @Param({"6", "8"})
+    public int depth;
+    
+    private State state;
+    private Player player;
+    
+    @Setup
+    public void setup()
+    {
+        this.state = BenchmarkPositions.get(this.position);
+        this.player = new Player("Benchmark",false,4);
+        this.player.setMaxDepth(this.depth);
+        this.player.setTimeBudget(TimeUnit.HOURS.toMillis(1));
+        this.player.setOpeningBook(null);
+        this.player.setTablebase(null);
+    }
+    
+    @Setup(Level.Invocation)
+    public void clear()
+    {
+        this.player.getTable().clear();
+        this.player.getEvaluationCache().clear();
+    }
+    
+    @Benchmark
+    public Move getAImove()
+    {
+        return this.player.getAImove(this.state);
+    }
+}
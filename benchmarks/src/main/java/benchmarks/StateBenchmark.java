@@ -0,0 +1,88 @@
+package benchmarks;
+
+import java.util.*;
+import java.util.concurrent.TimeUnit;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.Warmup;
+import engine.Move;
+import engine.State;
+
+/**
+ * The class StateBenchmark measures copying a state, making and taking back moves
+ * and the generation of the legal moves.
+ *
+ * @author  Lukas Gunthermann
+ * @version 1.0
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+@org.openjdk.jmh.annotations.State(Scope.Thread)
+public class StateBenchmark
+{
+    @Param({"opening", "middlegame", "endgame"})
+    public String position;
+    
+    private State state;
+    private int[] moves;
+    private int count;
+    private Move firstMove;
+    
+    @Setup
+    public void setup()
+    {
+        this.state = BenchmarkPositions.get(this.position);
+        this.moves = new int[State.maxMoves];
+        this.count = this.state.generateMoves(this.moves);
+        this.firstMove = Move.getMove(this.moves[0]);
+    }
+    
+    @Benchmark
+    public State copy()
+    {
+        return this.state.clone();
+    }
+    
+    @Benchmark
+    public int generateMoves()
+    {
+        return this.state.generateMoves(this.moves);
+    }
+    
+    /**
+     * Make and take back every legal move of the position.
+     */
+    @Benchmark
+    public long doUndoMoves()
+    {
+        long hash = 0;
+        for(int i=0;i<this.count;i++)
+        {
+            this.state.doMove(this.moves[i]);
+            hash ^= this.state.getHash();
+            this.state.undoMove();
+        }
+        return hash;
+    }
+    
+    /**
+     * The way the game makes a move: copy the state, move and list the legal moves of the new state.
+     */
+    @Benchmark
+    public ArrayList<Move> copyMoveAndList()
+    {
+        State copy = this.state.clone();
+        copy.move(this.firstMove);
+        return copy.getAvailableMoves();
+    }
+}